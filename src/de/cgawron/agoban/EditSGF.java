@@ -47,8 +47,13 @@ import de.cgawron.agoban.view.GobanView;
 import de.cgawron.agoban.view.GobanView.GobanContextMenuInfo;
 import de.cgawron.agoban.view.tool.MoveTool;
 import de.cgawron.go.Goban;
+import de.cgawron.go.Goban.BoardType;
+import de.cgawron.go.LadderReader;
+import de.cgawron.go.MoveValidator;
 import de.cgawron.go.Point;
+import de.cgawron.go.SimpleGoban;
 import de.cgawron.go.sgf.GameTree;
+import de.cgawron.go.sgf.GameTreeWalker;
 import de.cgawron.go.sgf.Node;
 import de.cgawron.go.sgf.Property;
 
@@ -68,7 +73,9 @@ public class EditSGF extends Activity implements GobanEventListener,
 	private GameTree gameTree;
 	private GameTreeControls gameTreeControls;
 	private Node currentNode;
+	private GameTreeWalker walker;
 	private final Map<Point, Node> variations = new HashMap<Point, Node>();
+	private final LadderReader ladderReader = new LadderReader();
 	private SGFApplication application;
 	
 	/** Called when the activity is first created. */
@@ -90,6 +97,7 @@ public class EditSGF extends Activity implements GobanEventListener,
 
 		GobanView.Tool tool = new MoveTool(this);
 		gobanView.setTool(tool);
+		walker = new GameTreeWalker(new SimpleGoban());
 		titleView = (TextView) findViewById(R.id.title);
 		// commentView = (TextView) findViewById(R.id.comment);
 
@@ -296,7 +304,8 @@ public class EditSGF extends Activity implements GobanEventListener,
 			variations.clear();
 			gobanView.resetMarkup();
 			if (currentNode != null) {
-				Goban goban = currentNode.getGoban();
+				walker.goTo(currentNode);
+				Goban goban = walker.getGoban();
 				if (currentNode.getSiblingCount() > 0) {
 					for (Node sibling : currentNode.getSiblings()) {
 						Log.d(TAG, "sibling: " + sibling);
@@ -308,6 +317,8 @@ public class EditSGF extends Activity implements GobanEventListener,
 				Point lastMove = goban.getLastMove();
 				if (lastMove != null)
 					gobanView.markLastMove(lastMove);
+				for (Point p : ladderReader.findCaptured(goban))
+					gobanView.markLadder(p);
 
 				doMarkup(gobanView, currentNode);
 				gobanView.setGoban(goban);
@@ -319,7 +330,7 @@ public class EditSGF extends Activity implements GobanEventListener,
 
 	private void doMarkup(GobanView view, Node node)
 	{
-		Goban goban = node.getGoban();
+		Goban goban = walker.getGoban();
 		for (Property property : node.values()) {
 			if (property instanceof Property.Markup) {
 				view.addMarkup(goban, (Property.Markup) property);
@@ -342,6 +353,30 @@ public class EditSGF extends Activity implements GobanEventListener,
 		}
 	}
 
+	/**
+	 * Get the position of the current node. The position is shared between
+	 * all nodes and must not be modified.
+	 */
+	public Goban getGoban()
+	{
+		return walker.getGoban();
+	}
+
+	/**
+	 * Check if a move at <code>point</code> would be legal at the current
+	 * node. The color of the move is determined like in
+	 * {@link Node#move(Point)}.
+	 */
+	public MoveValidator.Result checkMove(Point point)
+	{
+		Node node = currentNode;
+		while (!node.isMove() && node.getParent() != null)
+			node = node.getParent();
+		BoardType color = node.contains(Property.BLACK) ? BoardType.WHITE
+				: BoardType.BLACK;
+		return walker.createValidator().check(point, color);
+	}
+
 	public Map<Point, Node> getVariations()
 	{
 		return variations;
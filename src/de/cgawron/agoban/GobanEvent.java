@@ -54,7 +54,7 @@ public class GobanEvent
 			point = null;
 			pointF = null;
 		} else {
-			point = new Point((int) bx, (int) by);
+			point = Point.of((int) bx, (int) by);
 			pointF = new PointF(bx, by);
 		}
 		Log.d("GobanEvent", String.format("initialize: (%f, %f)", bx, by));
@@ -98,6 +98,22 @@ public class SGFApplication extends Application
 		Log.d(TAG, "git-id: " + gitId);
 	}
 
+	/**
+	 * Release the cached positions of all loaded games when the system runs
+	 * low on memory. The positions are rebuilt on demand.
+	 */
+	@Override
+	public void onLowMemory()
+	{
+		super.onLowMemory();
+		for (GameTree tree : gameMap.values()) {
+			if (tree != null) {
+				tree.getPositionCache().trim();
+				Log.i(TAG, "onLowMemory: " + tree.getPositionCache());
+			}
+		}
+	}
+
 	/**
 	 * Initialize the application and load an SGF file if a data URI has been
 	 * set. Due to the small default stack size, this has to be done in a worker
@@ -128,12 +144,8 @@ public class SGFApplication extends Application
 						try {
 							InputStream is = getContentResolver()
 									.openInputStream(data);
-							// The cup parser (or my code around it?) seems to
-							// have a multithreading problem
-							synchronized (de.cgawron.go.sgf.Parser.class) {
-								gameTree = new GameTree(is);
-								gameMap.put(data, gameTree);
-							}
+							gameTree = new GameTree(is);
+							gameMap.put(data, gameTree);
 						} catch (Exception ex) {
 							Log.e(TAG, "Exception while parsing SGF", ex);
 							exceptionHandler.handleException(
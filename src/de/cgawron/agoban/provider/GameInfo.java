@@ -32,6 +32,8 @@ import android.util.Log;
 import de.cgawron.go.sgf.GameTree;
 import de.cgawron.go.sgf.Property;
 import de.cgawron.go.sgf.Property.Key;
+import de.cgawron.go.sgf.PropertyList;
+import de.cgawron.go.sgf.SGFParser;
 
 /**
  * This class contains meta information on a game, i.e. players, results, event,
@@ -63,8 +65,11 @@ public class GameInfo
 	public static final String KEY_REMOTE_MODIFIED_DATE = "RDATE";
 	public static final String KEY_METADATA_DATE = "METADATE";
 	public static final String KEY_REMOTE_ID = "REMOTEID";
+	/** The id of the {@link de.cgawron.go.sgf.PositionIndex} holding the positions of the game. */
+	public static final String KEY_POSITION_INDEX = "PINDEX";
 	
 	public static final Uri     CONTENT_URI = new Uri.Builder().scheme("content").authority(GameInfo.AUTHORITY).path("games").build();
+	public static final Uri     POSITIONS_URI = new Uri.Builder().scheme("content").authority(GameInfo.AUTHORITY).path("positions").build();
 
 	public static final @Column                String KEY_URI = "URI";
 	public static final @Column(unique = true) String KEY_FILENAME = "FILENAME";
@@ -88,33 +93,21 @@ public class GameInfo
 
 
 	/**
-	 * Create GameInfo from file.
-	 * 
-	 * @todo This should be optimized - it's not necessary to create the whole
-	 *       GameTree structure to build the GameInfo.
+	 * Create GameInfo from a game tree.
 	 */
 	public GameInfo(GameTree gameTree)
 	{
 		this.file = gameTree.getFile();
-		init(gameTree);
+		init(gameTree.getRoot());
 	}
 
 	/**
-	 * Create GameInfo from file.
-	 * 
-	 * @todo This should be optimized - it's not necessary to create the whole
-	 *       GameTree structure to build the GameInfo.
+	 * Create GameInfo from file. Only the root node of the file is parsed.
 	 */
 	public GameInfo(File file) throws Exception
 	{
 		this.file = file;
-		GameTree gameTree = null;
-		// The cup parser (or my code around it?) seems to have a multithreading
-		// problem
-		synchronized (de.cgawron.go.sgf.Parser.class) {
-			gameTree = new GameTree(file);
-		}
-		init(gameTree);
+		init(new SGFParser(file).parseRoot());
 	}
 
 	/**
@@ -142,7 +135,7 @@ public class GameInfo
 		}
 	}
 
-	private void init(GameTree gameTree)
+	private void init(PropertyList root)
 	{
 		if (sgfKeys == null)
 			initSGFKeys();
@@ -154,7 +147,7 @@ public class GameInfo
 		values.put(KEY_METADATA_DATE, file.lastModified());
 
 		for (Key key : sgfKeys) {
-			Property property = gameTree.getRoot().get(key);
+			Property property = root.get(key);
 			if (property != null) {
 				Log.d(TAG, "property=" + property);
 				if (property.getValue() != null)
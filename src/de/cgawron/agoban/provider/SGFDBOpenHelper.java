@@ -27,7 +27,7 @@ import de.cgawron.agoban.provider.GameInfo.Column;
 class SGFDBOpenHelper extends SQLiteOpenHelper
 {
 	private static final String TAG = "SGFDBOpenHelper";
-	private static final int DATABASE_VERSION = 4;
+	private static final int DATABASE_VERSION = 5;
 	private static final String DATABASE_NAME = "AGoban";
 	static final String SGF_TABLE_NAME = "sgf";
 
@@ -62,6 +62,9 @@ class SGFDBOpenHelper extends SQLiteOpenHelper
 			case 4:
 				sb.append(GameInfo.KEY_REMOTE_ID).append(" TEXT UNIQUE");
 				break;
+			case 5:
+				sb.append(GameInfo.KEY_POSITION_INDEX).append(" INTEGER");
+				break;
 			default:
 				throw new RuntimeException(String.format("Unknow DB version: %d", newVersion));
 			}
@@ -99,7 +102,8 @@ class SGFDBOpenHelper extends SQLiteOpenHelper
 		sb.append(GameInfo.KEY_LOCAL_MODIFIED_DATE).append(" INTEGER, ");
 		sb.append(GameInfo.KEY_REMOTE_MODIFIED_DATE).append(" INTEGER, ");
 		sb.append(GameInfo.KEY_METADATA_DATE).append(" INTEGER, ");
-		sb.append(GameInfo.KEY_REMOTE_ID).append(" TEXT UNIQUE);");
+		sb.append(GameInfo.KEY_REMOTE_ID).append(" TEXT UNIQUE, ");
+		sb.append(GameInfo.KEY_POSITION_INDEX).append(" INTEGER);");
 		Log.d(TAG, "SQL: " + sb.toString());
 
 		return sb.toString();
@@ -20,14 +20,19 @@ import static de.cgawron.agoban.provider.GameInfo.KEY_FILENAME;
 import static de.cgawron.agoban.provider.GameInfo.KEY_ID;
 import static de.cgawron.agoban.provider.GameInfo.KEY_LOCAL_MODIFIED_DATE;
 import static de.cgawron.agoban.provider.GameInfo.KEY_METADATA_DATE;
+import static de.cgawron.agoban.provider.GameInfo.KEY_POSITION_INDEX;
 import static de.cgawron.agoban.provider.GameInfo.KEY_REMOTE_MODIFIED_DATE;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import android.content.ContentProvider;
 import android.content.ContentUris;
@@ -43,6 +48,9 @@ import android.os.ParcelFileDescriptor;
 import android.text.TextUtils;
 import android.util.Log;
 
+import de.cgawron.go.sgf.GameTree;
+import de.cgawron.go.sgf.PositionIndex;
+
 public class SGFProvider extends ContentProvider
 {
 	private static String TAG = "SGFProvider";
@@ -57,10 +65,12 @@ public class SGFProvider extends ContentProvider
 	private static final int GAMES = 1;
 	private static final int GAME_ID = 2;
 	private static final int FILE_ID = 3;
+	private static final int POSITIONS = 4;
 
 	private String[] columns = null;
 	private SGFDBOpenHelper dbHelper = null;
 	private SQLiteDatabase db = null;
+	private PositionIndex positionIndex = null;
 	private long lastChecked = 0;
 	private static Map<Long, GameInfo> sgfMap = new HashMap<Long, GameInfo>();
 	private static UriMatcher uriMatcher;
@@ -75,6 +85,7 @@ public class SGFProvider extends ContentProvider
         uriMatcher.addURI(GameInfo.AUTHORITY, "games", GAMES);
         uriMatcher.addURI(GameInfo.AUTHORITY, "games/*", GAME_ID);
         uriMatcher.addURI(GameInfo.AUTHORITY, "files/*", FILE_ID);
+        uriMatcher.addURI(GameInfo.AUTHORITY, "positions/*", POSITIONS);
     }
 
 	private void initColumns()
@@ -114,6 +125,8 @@ public class SGFProvider extends ContentProvider
 		Log.i(TAG, "deleting " + id);
 		String[] args = { id };
 		db.delete(SGFDBOpenHelper.SGF_TABLE_NAME, QUERY_STRING, args);
+		if (positionIndex != null)
+			positionIndex.removeGame(Integer.parseInt(id));
 	}
 
 	Thread updateThread = null;
@@ -143,6 +156,8 @@ public class SGFProvider extends ContentProvider
 		// fileMap = new HashMap<Integer, GameInfo>();
 		String state = Environment.getExternalStorageState();
 		if (Environment.MEDIA_MOUNTED.equals(state)) {
+			// The games are listed from their root nodes first; their
+			// positions are indexed afterwards
 			Log.d(TAG, "reading directory " + SGF_DIRECTORY);
 			File[] files = SGF_DIRECTORY.listFiles(new FilenameFilter() {
 				public boolean accept(File dir, String fileName)
@@ -200,11 +215,17 @@ public class SGFProvider extends ContentProvider
 				}
 			}
 			cursor.close();
+			if (positionIndex != null)
+				indexPositions();
 		}
 		lastChecked = System.currentTimeMillis();
 		updateThread = null;
 	}
 
+	/**
+	 * Update the database entry of a file from its root node. The positions
+	 * of the game are indexed by {@link #indexPositions()}.
+	 */
 	private void updateFile(File file, boolean insert)
 	{
 		Log.d(TAG, "updateFile file=" + file + ", insert=" + insert);
@@ -212,11 +233,11 @@ public class SGFProvider extends ContentProvider
 		try {
 			gameInfo = new GameInfo(file);
 		} catch (Exception ex) {
-			Log.e(TAG, "parse error: " + ex);
-			ex.printStackTrace();
+			Log.e(TAG, "parse error in " + file + ": " + ex.getMessage(), ex);
 			return;
 		}
 		ContentValues contentValues = gameInfo.getContentValues();
+		contentValues.putNull(KEY_POSITION_INDEX);
 		Log.d(TAG, "updateFile: values=" + contentValues);
 		long rowId = 0;
 		if (insert) {
@@ -232,7 +253,79 @@ public class SGFProvider extends ContentProvider
 			update(GameInfo.CONTENT_URI, contentValues, GameInfo.KEY_FILENAME + "=?", 
 				   new String[] { file.getName() });
 		}
-		
+	}
+
+	/**
+	 * Add the positions of all games which are not in the position index.
+	 * The database records the id of the index a game was added to, so all
+	 * games are indexed again when the index file is recreated, and games
+	 * missed by an interrupted update are indexed by the next one.
+	 */
+	private void indexPositions()
+	{
+		Map<Long, File> unindexed = new HashMap<Long, File>();
+		Set<Integer> ids = new HashSet<Integer>();
+		String indexId = Long.toString(positionIndex.getId());
+		Cursor cursor = queryDB(COLUMNS_ID_FILENAME, KEY_POSITION_INDEX + " IS NULL OR "
+								+ KEY_POSITION_INDEX + " != ?", new String[] { indexId });
+		while (cursor.moveToNext()) {
+			long rowId = cursor.getLong(0);
+			unindexed.put(rowId, new File(SGF_DIRECTORY, cursor.getString(1)));
+			ids.add((int) rowId);
+		}
+		cursor.close();
+		if (unindexed.isEmpty())
+			return;
+
+		// drop what an interrupted update or an old version of the file left
+		positionIndex.removeGames(ids);
+		for (Map.Entry<Long, File> entry : unindexed.entrySet())
+			indexPositions(entry.getKey(), entry.getValue());
+		// the index is written before the games are marked as indexed
+		positionIndex.flush();
+
+		ContentValues values = new ContentValues();
+		values.put(KEY_POSITION_INDEX, positionIndex.getId());
+		for (Long rowId : unindexed.keySet())
+			db.update(SGFDBOpenHelper.SGF_TABLE_NAME, values, QUERY_STRING,
+					  new String[] { rowId.toString() });
+		Log.d(TAG, "indexPositions: indexed " + unindexed.size() + " games");
+	}
+
+	/**
+	 * Add the positions of a game to the position index. A game which can't
+	 * be parsed is left out; it is tried again when its file changes.
+	 */
+	private void indexPositions(long rowId, File file)
+	{
+		Log.d(TAG, "indexPositions file=" + file);
+		try {
+			positionIndex.addGame((int) rowId, new GameTree(file));
+		} catch (Exception ex) {
+			Log.e(TAG, "parse error in " + file + ": " + ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Get the ids of the games reaching a position.
+	 *
+	 * @param hash
+	 *            - the normalized hash of the position as calculated by
+	 *            {@link PositionIndex#normalizedHash}
+	 * @return a comma separated list of ids
+	 */
+	private String findPosition(long hash)
+	{
+		StringBuilder ids = new StringBuilder();
+		if (positionIndex != null) {
+			List<PositionIndex.Entry> entries = positionIndex.find(hash);
+			for (PositionIndex.Entry entry : entries) {
+				if (ids.length() > 0)
+					ids.append(',');
+				ids.append(entry.getGameId());
+			}
+		}
+		return ids.toString();
 	}
 
 	@Override
@@ -252,6 +345,16 @@ public class SGFProvider extends ContentProvider
             qb.appendWhere(KEY_ID + "=" + uri.getPathSegments().get(1));
             break;
 
+		case POSITIONS:
+			long hash;
+			try {
+				hash = Long.parseLong(uri.getPathSegments().get(1));
+			} catch (NumberFormatException ex) {
+				throw new IllegalArgumentException("Unknown URI " + uri);
+			}
+			qb.appendWhere(KEY_ID + " IN (" + findPosition(hash) + ")");
+			break;
+
         default:
             throw new IllegalArgumentException("Unknown URI " + uri);
 		}
@@ -322,6 +425,8 @@ public class SGFProvider extends ContentProvider
                     + (!TextUtils.isEmpty(where) ? " AND (" + where + ')' : ""), whereArgs);
             count = db.delete(SGFDBOpenHelper.SGF_TABLE_NAME, GameInfo.KEY_ID + "=" + id
                     + (!TextUtils.isEmpty(where) ? " AND (" + where + ')' : ""), whereArgs);
+            if (count > 0 && positionIndex != null)
+            	positionIndex.removeGame(Integer.parseInt(id));
             break;
 
         default:
@@ -356,6 +461,7 @@ public class SGFProvider extends ContentProvider
 
         switch (uriMatcher.match(uri)) {
         case GAMES:
+        case POSITIONS:
             type = GameInfo.CONTENT_TYPE;
 			break;
 
@@ -383,6 +489,11 @@ public class SGFProvider extends ContentProvider
 		dbHelper = new SGFDBOpenHelper(getContext());
 		db = dbHelper.getWritableDatabase();
 		db.setLockingEnabled(true);
+		try {
+			positionIndex = new PositionIndex(new File(getContext().getFilesDir(), "positions.idx"));
+		} catch (IOException ex) {
+			Log.e(TAG, "can't open position index: " + ex.getMessage(), ex);
+		}
 		updateDatabase();
 		return true;
 	}
@@ -79,9 +79,9 @@ public class GobanEventHandler /*extends MultiTouchController<Object> */ impleme
 		PointF pF = gobanView.getCursorPosition();
 		Point p;
 		if (pF == null)
-			p = new Point(9, 9);
+			p = Point.of(9, 9);
 		else
-			p = new Point((int) pF.x, (int) pF.y);
+			p = Point.of((int) pF.x, (int) pF.y);
 
 		switch (event.getAction()) {
 		case MotionEvent.ACTION_UP:
@@ -106,7 +106,7 @@ public class GobanEventHandler /*extends MultiTouchController<Object> */ impleme
 				y = 0;
 			else if (y >= gobanView.getBoardSize())
 				y = gobanView.getBoardSize() - 1;
-			p = new Point(x, y);
+			p = Point.of(x, y);
 			Log.d("GobanEventHandler",
 					String.format("onTrackballEvent: %s (%f, %f)", p, dx, dy));
 			/* fall through */
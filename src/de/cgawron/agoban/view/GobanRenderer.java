@@ -50,6 +50,7 @@ public class GobanRenderer
 	private static float SIN45 = (float) Math.sqrt(0.5);
 	//private static int SELECTION_COLOR = Color.RED;
 	private static int VARIATION_COLOR = Color.argb(128, 128, 128, 128);
+	private static int LADDER_COLOR = Color.argb(192, 255, 0, 0);
 
 	private final GobanView view;
 
@@ -119,6 +120,31 @@ public class GobanRenderer
 		}
 	}
 
+	/**
+	 * Marks a stone of a string which is captured in a ladder.
+	 */
+	public class LadderMark extends Markup
+	{
+		private final Point point;
+
+		public LadderMark(Point point)
+		{
+			this.point = point;
+		}
+
+		@Override
+		public void draw(Canvas canvas, Goban goban)
+		{
+			short x = point.getX();
+			short y = point.getY();
+			Paint paint = new Paint();
+			paint.setAntiAlias(true);
+			paint.setColor(LADDER_COLOR);
+			paint.setStyle(Paint.Style.FILL);
+			canvas.drawCircle(x, y, HIGHLIGHT_RADIUS, paint);
+		}
+	}
+
 	public class SGFMarkup extends Markup
 	{
 		private final Point point;
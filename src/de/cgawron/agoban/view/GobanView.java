@@ -188,6 +188,11 @@ public class GobanView extends View
 		markupList.add(renderer.new LastMoveMark(p));
 	}
 
+	public void markLadder(Point p)
+	{
+		markupList.add(renderer.new LadderMark(p));
+	}
+
 	public void resetMarkup()
 	{
 		markupList.clear();
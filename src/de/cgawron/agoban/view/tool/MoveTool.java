@@ -30,10 +30,12 @@ import android.graphics.drawable.ShapeDrawable;
 import android.graphics.drawable.shapes.OvalShape;
 import android.graphics.drawable.shapes.Shape;
 import android.util.Log;
+import android.widget.Toast;
 import de.cgawron.agoban.EditSGF;
 import de.cgawron.agoban.GobanEvent;
 import de.cgawron.agoban.view.GobanView;
 import de.cgawron.go.Goban.BoardType;
+import de.cgawron.go.MoveValidator;
 import de.cgawron.go.Point;
 import de.cgawron.go.sgf.Node;
 
@@ -112,16 +114,23 @@ public class MoveTool extends Drawable implements GobanView.Tool
 				editor.setCurrentNode(variations.get(point));
 			}
 			// click on an existing stone - go to node
-			else if (currentNode.getGoban().getStone(point) != BoardType.EMPTY) {
+			else if (editor.getGoban().getStone(point) != BoardType.EMPTY) {
 				Node node = currentNode;
 				while (node.getParent() != null
-						&& !point.equals(node.getGoban().getLastMove())) {
+						&& !point.equals(node.getPoint())) {
 					node = node.getParent();
 				}
 				editor.setCurrentNode(node);
 			}
 			// click on an empty intersection - move
 			else if (editor.checkNotReadOnly()) {
+				MoveValidator.Result result = editor.checkMove(point);
+				if (result != MoveValidator.Result.LEGAL) {
+					Log.d(TAG, "onGobanEvent: illegal move: " + result);
+					Toast.makeText(editor, "Illegal move: " + result,
+							Toast.LENGTH_SHORT).show();
+					return;
+				}
 				if (currentNode.getChildCount() == 1
 						&& currentNode.getDepth() <= 1) {
 					askReplaceMove(currentNode, point);
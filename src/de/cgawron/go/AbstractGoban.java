@@ -19,6 +19,12 @@ package de.cgawron.go;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Vector;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * A {@link Goban} providing <code>PropertyChangeSupport</code>.
@@ -31,6 +37,201 @@ public abstract class AbstractGoban implements Goban
 {
 	private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
+	protected Collection<GobanListener> listeners = new ArrayList<GobanListener>();
+
+	private static Logger logger = Logger.getLogger(AbstractGoban.class
+			.getName());
+
+	/**
+	 * The 64 bit Zobrist hashes of the stones on the board as seen through
+	 * each of the 16 symmetries, indexed by {@link Symmetry#toInt}. They are
+	 * updated incrementally by {@link #updateHash}.
+	 */
+	private long[] hash = new long[16];
+
+	/** The key table for the current board size. */
+	private transient long[] keys;
+
+	/** The symmetry permutations for the current board size. */
+	private transient int[][] permutations;
+
+	/** The point of a ko or <code>null</code> if there is none. */
+	private Point koPoint;
+
+	/** The color of the player to move. */
+	private BoardType toMove = BoardType.BLACK;
+
+	/** The delta currently recorded or <code>null</code>. */
+	private transient GobanDelta delta;
+
+	/** The nesting depth of {@link #beginUpdate}. */
+	private transient int updateLevel;
+
+	/**
+	 * The points changed during an update, packed with {@link Point#pack}, or
+	 * <code>null</code> if no point changed.
+	 */
+	private transient BitSet changedPoints;
+
+	/** Set if the whole model changed during an update. */
+	private transient boolean modelChanged;
+
+	/** addGobanListener method comment. */
+	public void addGobanListener(GobanListener l)
+	{
+		listeners.add(l);
+	}
+
+	/** removeGobanListener method comment. */
+	public void removeGobanListener(GobanListener l)
+	{
+		listeners.remove(l);
+	}
+
+	/**
+	 * Notify the listeners that stones were removed from the board.
+	 * 
+	 * @param removed
+	 *            the points where stones were removed
+	 */
+	protected void fireStonesRemoved(Vector<Point> removed)
+	{
+		if (updateLevel > 0) {
+			for (Point p : removed)
+				changed(p.getX(), p.getY());
+			return;
+		}
+		GobanEvent e = null;
+		for (GobanListener listener : listeners) {
+			// Lazily create the event:
+			if (e == null)
+				e = new GobanEvent(this, removed);
+			listener.stonesRemoved(e);
+		}
+	}
+
+	/**
+	 * Notify the listeners that a stone was added to the board.
+	 * 
+	 * @param x
+	 *            int
+	 * @param y
+	 *            int
+	 * @param c
+	 *            goban.BoardType
+	 */
+	protected void fireStoneAdded(int x, int y, BoardType c)
+	{
+		if (updateLevel > 0) {
+			changed(x, y);
+			return;
+		}
+		GobanEvent e = null;
+		for (GobanListener listener : listeners) {
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("Notifying listener ...");
+			// Lazily create the event:
+			if (e == null)
+				e = new GobanEvent(this, x, y, c);
+			listener.stoneAdded(e);
+		}
+	}
+
+	/**
+	 * Notify the listeners that the model changed.
+	 */
+	protected void fireModelChanged()
+	{
+		if (updateLevel > 0) {
+			modelChanged = true;
+			return;
+		}
+		GobanEvent e = null;
+		for (GobanListener listener : listeners) {
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("Notifying listener ...");
+			// Lazily create the event:
+			if (e == null)
+				e = new GobanEvent(this);
+			listener.modelChanged(e);
+		}
+	}
+
+	/**
+	 * Notify the listeners that the model changed at (x, y), e.g. the markup
+	 * of the point.
+	 */
+	protected void fireModelChanged(int x, int y)
+	{
+		if (updateLevel > 0) {
+			changed(x, y);
+			return;
+		}
+		GobanEvent e = null;
+		for (GobanListener listener : listeners) {
+			// Lazily create the event:
+			if (e == null)
+				e = new GobanEvent(this, Point.of(x, y));
+			listener.modelChanged(e);
+		}
+	}
+
+	/** Record a change of (x, y) during an update. */
+	private void changed(int x, int y)
+	{
+		if (changedPoints == null)
+			changedPoints = new BitSet();
+		changedPoints.set(Point.pack(x, y));
+	}
+
+	public void beginUpdate()
+	{
+		updateLevel++;
+	}
+
+	public void endUpdate()
+	{
+		if (updateLevel == 0)
+			throw new IllegalStateException("endUpdate without beginUpdate");
+		if (--updateLevel > 0)
+			return;
+
+		BitSet changed = changedPoints;
+		boolean all = modelChanged;
+		changedPoints = null;
+		modelChanged = false;
+		if (!all && changed == null)
+			return;
+
+		Vector<Point> points = new Vector<Point>();
+		if (!all) {
+			for (int i = changed.nextSetBit(0); i >= 0; i = changed
+					.nextSetBit(i + 1))
+				points.add(Point.unpack(i));
+		}
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("endUpdate: " + (all ? "all" : points.size())
+					+ " points changed");
+		GobanEvent e = null;
+		for (GobanListener listener : listeners) {
+			// Lazily create the event:
+			if (e == null)
+				e = new GobanEvent(this, points);
+			listener.modelChanged(e);
+		}
+	}
+
+	public void putStones(Collection<Point> points, BoardType color)
+	{
+		beginUpdate();
+		try {
+			for (Point p : points)
+				putStone(p, color);
+		} finally {
+			endUpdate();
+		}
+	}
+
 	/**
 	 * Adds a PropertyChangeListener to the listener list. The listener is
 	 * registered for all properties.
@@ -166,13 +367,336 @@ public abstract class AbstractGoban implements Goban
 		return pcs.hasListeners(propertyName);
 	}
 
+	/**
+	 * Update the hashes when the stone at (x, y) changes from
+	 * <code>oldColor</code> to <code>newColor</code>. Implementations must
+	 * call this for every change of the board.
+	 * 
+	 * @param size
+	 *            - the board size
+	 */
+	protected final void updateHash(int size, int x, int y,
+			BoardType oldColor, BoardType newColor)
+	{
+		if (oldColor == newColor)
+			return;
+		if (delta != null)
+			delta.record(x, y, oldColor);
+		long[] k = keys(size);
+		int[][] p = permutations(size);
+		int i = y * size + x;
+		for (int s = 0; s < 8; s++) {
+			int t = 2 * p[s][i];
+			if (oldColor == BoardType.BLACK) {
+				hash[s] ^= k[t];
+				hash[s | 8] ^= k[t + 1];
+			} else if (oldColor == BoardType.WHITE) {
+				hash[s] ^= k[t + 1];
+				hash[s | 8] ^= k[t];
+			}
+			if (newColor == BoardType.BLACK) {
+				hash[s] ^= k[t];
+				hash[s | 8] ^= k[t + 1];
+			} else if (newColor == BoardType.WHITE) {
+				hash[s] ^= k[t + 1];
+				hash[s | 8] ^= k[t];
+			}
+		}
+	}
+
+	/**
+	 * Set the stone at (x, y) without capturing. Implementations must update
+	 * the hashes with {@link #updateHash}.
+	 */
+	protected abstract void setStone(int x, int y, BoardType c);
+
+	/**
+	 * Get the stone at a point given by its index.
+	 * 
+	 * @param index
+	 *            - the index <code>y * size + x</code> of the point (x, y)
+	 * @return the stone
+	 */
+	public BoardType getStone(int index)
+	{
+		int size = getBoardSize();
+		return getStone(index % size, index / size);
+	}
+
+	protected abstract void setLastMove(Point p);
+
+	protected abstract void setBlackCaptured(int n);
+
+	protected abstract void setWhiteCaptured(int n);
+
+	/**
+	 * Create the delta used to record changes. Subclasses keeping additional
+	 * state may return a subclass of {@link GobanDelta}.
+	 */
+	protected GobanDelta createDelta(Point p, BoardType color)
+	{
+		return new GobanDelta(this, p, color);
+	}
+
+	/**
+	 * Get the delta which is currently recorded.
+	 * 
+	 * @return the delta or <code>null</code> if no delta is recorded
+	 */
+	protected GobanDelta getDelta()
+	{
+		return delta;
+	}
+
+	/**
+	 * Start recording the changes of the board. All changes up to the next
+	 * call of {@link #endDelta} can be reverted with {@link #undo}. The board
+	 * size must not be changed while recording.
+	 * 
+	 * @throws IllegalStateException
+	 *             if a delta is already recorded
+	 */
+	public void beginDelta()
+	{
+		beginDelta(null, null);
+	}
+
+	private void beginDelta(Point p, BoardType color)
+	{
+		if (delta != null)
+			throw new IllegalStateException("already recording a delta");
+		delta = createDelta(p, color);
+	}
+
+	/**
+	 * Stop recording the changes of the board.
+	 * 
+	 * @return the recorded changes
+	 */
+	public GobanDelta endDelta()
+	{
+		GobanDelta d = delta;
+		delta = null;
+		return d;
+	}
+
+	public GobanDelta play(Point p, BoardType color)
+	{
+		beginDelta(p, color);
+		try {
+			move(p, color);
+		} catch (RuntimeException ex) {
+			endDelta();
+			throw ex;
+		}
+		return endDelta();
+	}
+
+	public void undo(GobanDelta d)
+	{
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("undo: " + d);
+		for (int i = d.size() - 1; i >= 0; i--) {
+			Point p = d.getChangedPoint(i);
+			setStone(p.getX(), p.getY(), d.getPreviousColor(i));
+		}
+		setLastMove(d.getLastMove());
+		setBlackCaptured(d.getBlackCaptured());
+		setWhiteCaptured(d.getWhiteCaptured());
+		koPoint = d.getKoPoint();
+		toMove = d.getToMove();
+		fireModelChanged();
+	}
+
+	/**
+	 * Reset the hashes, the ko and the player to move for an empty board.
+	 */
+	protected final void clearHash()
+	{
+		java.util.Arrays.fill(hash, 0);
+		koPoint = null;
+		toMove = BoardType.BLACK;
+	}
+
+	/**
+	 * Copy the hashes, the ko and the player to move from another goban.
+	 */
+	protected final void copyHash(AbstractGoban g)
+	{
+		System.arraycopy(g.hash, 0, hash, 0, 16);
+		koPoint = g.koPoint;
+		toMove = g.toMove;
+	}
+
+	private long[] keys(int size)
+	{
+		long[] k = keys;
+		if (k == null || k.length != 3 * size * size)
+			keys = k = Zobrist.keys(size);
+		return k;
+	}
+
+	private int[][] permutations(int size)
+	{
+		int[][] p = permutations;
+		if (p == null || p[0].length != size * size)
+			permutations = p = Symmetry.permutations(size);
+		return p;
+	}
+
+	/**
+	 * Set the ko point. This is done by the implementations of
+	 * {@link #move}.
+	 * 
+	 * @param p
+	 *            - the point which may not be played immediately or
+	 *            <code>null</code>
+	 */
+	protected void setKoPoint(Point p)
+	{
+		koPoint = p;
+	}
+
+	public Point getKoPoint()
+	{
+		return koPoint;
+	}
+
+	/**
+	 * Set the color of the player to move.
+	 * 
+	 * @param color
+	 *            - the player to move
+	 */
+	public void setToMove(BoardType color)
+	{
+		toMove = color;
+	}
+
+	public BoardType getToMove()
+	{
+		return toMove;
+	}
+
+	public long zobristHash(Symmetry s)
+	{
+		return hash[s.toInt()];
+	}
+
+	public long zobristHash64()
+	{
+		long h = hash[0];
+		for (int s = 1; s < 8; s++)
+			if (hash[s] > h)
+				h = hash[s];
+		return h;
+	}
+
+	/**
+	 * Calculate the hash of the situation (stones, player to move and ko) as
+	 * seen through a symmetry.
+	 * 
+	 * @param s
+	 *            - the symmetry
+	 */
+	public long situationHash(Symmetry s)
+	{
+		return situationHash(s.toInt());
+	}
+
+	public long situationHash()
+	{
+		return situationHash(0);
+	}
+
+	private long situationHash(int s)
+	{
+		int size = getBoardSize();
+		long h = hash[s];
+		BoardType player = toMove;
+		if ((s & 8) != 0)
+			player = player.opposite();
+		if (player == BoardType.WHITE)
+			h ^= Zobrist.WHITE_TO_MOVE;
+		if (koPoint != null)
+			h ^= keys(size)[2 * size * size
+					+ Symmetry.transformIndex(s & 7, koPoint.getX(),
+							koPoint.getY(), size)];
+		return h;
+	}
+
 	/**
 	 * This method should be considered private. It is only part of this
 	 * interface for implementation reasons.
+	 */
+	int _hash(Symmetry s)
+	{
+		return Zobrist.fold(hash[s.toInt()]);
+	}
+
+	/**
+	 * The hash code is invariant under the spatial symmetries and consistent
+	 * with {@link #equals(Object)} of all implementations.
+	 */
+	@Override
+	public int hashCode()
+	{
+		return Zobrist.fold(zobristHash64());
+	}
+
+	public int zobristHash()
+	{
+		return hashCode();
+	}
+
+	public boolean equals(Object o, Symmetry s)
+	{
+		if (!(o instanceof Goban))
+			return false;
+		Goban goban = (Goban) o;
+		int size = getBoardSize();
+		if (goban.getBoardSize() != size)
+			return false;
+		// equal positions have the same symmetric hash
+		if ((s.toInt() & 8) == 0 && goban instanceof AbstractGoban
+				&& ((AbstractGoban) goban).zobristHash64() != zobristHash64())
+			return false;
+
+		int[] p = s.permutation(size);
+		for (int i = 0; i < p.length; i++) {
+			BoardType stone = goban instanceof AbstractGoban ? ((AbstractGoban) goban)
+					.getStone(i)
+					: goban.getStone(i % size, i / size);
+			if (stone != s.transform(getStone(p[i])))
+				return false;
+		}
+		return true;
+	}
+
+	public Goban transform(Symmetry s)
+	{
+		int size = getBoardSize();
+		AbstractGoban m = (AbstractGoban) newInstance();
+		int[] p = s.permutation(size);
+		for (int i = 0; i < p.length; i++) {
+			BoardType stone = getStone(i);
+			if (stone != BoardType.EMPTY)
+				m.setStone(p[i] % size, p[i] / size, s.transform(stone));
+		}
+		return m;
+	}
+
+	/**
+	 * Estimate the memory used by this goban. Subclasses add the size of
+	 * their board representation.
 	 * 
-	 * @todo Maybe it would be better to move this to AbstractGoban.
+	 * @return the estimated size in bytes
 	 */
-	abstract int _hash(Symmetry s);
+	public int estimateSize()
+	{
+		// the object, the listeners and the hashes
+		return 256;
+	}
 
 	@Override
 	abstract public Goban clone() throws CloneNotSupportedException;
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+/**
+ * Precomputed neighbourhood tables for one board size. Points are addressed
+ * by their index <code>y * size + x</code>; the neighbours of a point are
+ * listed in the order +x, +y, -x, -y (the order used by
+ * {@link NeighborhoodEnumeration}). The tables are shared and immutable, so
+ * iterating over the neighbours of a point allocates nothing:
+ *
+ * <pre>
+ * Adjacency adj = Adjacency.forSize(size);
+ * for (int k = adj.first(p); k &lt; adj.end(p); k++) {
+ * 	int q = adj.neighbour(k);
+ * 	...
+ * }
+ * </pre>
+ *
+ * @author Christian Gawron
+ */
+public final class Adjacency
+{
+	private static final Adjacency[] instances = new Adjacency[Point.MAX_SIZE + 1];
+
+	final int size;
+
+	/**
+	 * The neighbours of all points, four slots per point. Only the first
+	 * <code>degree[p]</code> slots of point p are used.
+	 */
+	final int[] neighbours;
+
+	/** The number of neighbours of each point (2, 3 or 4). */
+	final int[] degree;
+
+	/** The x coordinate of each point. */
+	final int[] xOf;
+
+	/** The y coordinate of each point. */
+	final int[] yOf;
+
+	private Adjacency(int size)
+	{
+		this.size = size;
+		int n = size * size;
+		neighbours = new int[4 * n];
+		degree = new int[n];
+		xOf = new int[n];
+		yOf = new int[n];
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				int p = y * size + x;
+				int k = 4 * p;
+				xOf[p] = x;
+				yOf[p] = y;
+				if (x + 1 < size)
+					neighbours[k++] = p + 1;
+				if (y + 1 < size)
+					neighbours[k++] = p + size;
+				if (x > 0)
+					neighbours[k++] = p - 1;
+				if (y > 0)
+					neighbours[k++] = p - size;
+				degree[p] = k - 4 * p;
+			}
+		}
+	}
+
+	/**
+	 * Get the (shared) tables for a board size.
+	 *
+	 * @param size
+	 *            - the board size
+	 * @return the <code>Adjacency</code> for boards of this size
+	 */
+	public static Adjacency forSize(int size)
+	{
+		if (size < 1 || size > Point.MAX_SIZE)
+			throw new IllegalArgumentException("illegal board size " + size);
+		synchronized (instances) {
+			if (instances[size] == null)
+				instances[size] = new Adjacency(size);
+			return instances[size];
+		}
+	}
+
+	/** Get the board size of these tables. */
+	public int getBoardSize()
+	{
+		return size;
+	}
+
+	/** Get the index of the point (x, y). */
+	public int index(int x, int y)
+	{
+		return y * size + x;
+	}
+
+	/** Get the x coordinate of the point with index p. */
+	public int x(int p)
+	{
+		return xOf[p];
+	}
+
+	/** Get the y coordinate of the point with index p. */
+	public int y(int p)
+	{
+		return yOf[p];
+	}
+
+	/** Get the number of neighbours of the point with index p. */
+	public int degree(int p)
+	{
+		return degree[p];
+	}
+
+	/** Get the first slot of the neighbours of p. */
+	public int first(int p)
+	{
+		return 4 * p;
+	}
+
+	/** Get the slot after the last neighbour of p. */
+	public int end(int p)
+	{
+		return 4 * p + degree[p];
+	}
+
+	/** Get the neighbour stored in slot k. */
+	public int neighbour(int k)
+	{
+		return neighbours[k];
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+/**
+ * Word-wide operations on board bitsets. A bitset is a <code>long[]</code>
+ * where bit <code>y * size + x</code> represents the point (x, y). There is
+ * one shared instance per board size which holds the masks needed to shift
+ * sets across the board without wrapping around at the edges.
+ *
+ * @author Christian Gawron
+ */
+final class BitBoard
+{
+	private static final BitBoard[] instances = new BitBoard[Point.MAX_SIZE + 1];
+
+	final int size;
+	final int words;
+
+	/** All points on the board. */
+	final long[] board;
+
+	/** All points except those in the first column (x == 0). */
+	private final long[] notFirstColumn;
+
+	/** All points except those in the last column (x == size - 1). */
+	private final long[] notLastColumn;
+
+	private BitBoard(int size)
+	{
+		this.size = size;
+		this.words = (size * size + 63) >>> 6;
+		board = new long[words];
+		notFirstColumn = new long[words];
+		notLastColumn = new long[words];
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				int i = y * size + x;
+				set(board, i);
+				if (x != 0)
+					set(notFirstColumn, i);
+				if (x != size - 1)
+					set(notLastColumn, i);
+			}
+		}
+	}
+
+	/**
+	 * Get the (shared) instance for a board size.
+	 *
+	 * @param size
+	 *            - the board size
+	 * @return the <code>BitBoard</code> for boards of this size
+	 */
+	static BitBoard forSize(int size)
+	{
+		if (size < 1 || size > Point.MAX_SIZE)
+			throw new IllegalArgumentException("illegal board size " + size);
+		synchronized (instances) {
+			if (instances[size] == null)
+				instances[size] = new BitBoard(size);
+			return instances[size];
+		}
+	}
+
+	static boolean get(long[] bits, int i)
+	{
+		return (bits[i >>> 6] & (1L << i)) != 0;
+	}
+
+	static void set(long[] bits, int i)
+	{
+		bits[i >>> 6] |= 1L << i;
+	}
+
+	static void clear(long[] bits, int i)
+	{
+		bits[i >>> 6] &= ~(1L << i);
+	}
+
+	static boolean isEmpty(long[] bits)
+	{
+		for (long w : bits)
+			if (w != 0)
+				return false;
+		return true;
+	}
+
+	static int count(long[] bits)
+	{
+		int n = 0;
+		for (long w : bits)
+			n += Long.bitCount(w);
+		return n;
+	}
+
+	/**
+	 * Get the next set bit at or after <code>i</code>.
+	 *
+	 * @return the index of the bit or -1 if there is none
+	 */
+	static int next(long[] bits, int i)
+	{
+		int w = i >>> 6;
+		if (w >= bits.length)
+			return -1;
+		long word = bits[w] & (-1L << i);
+		while (true) {
+			if (word != 0)
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			if (++w == bits.length)
+				return -1;
+			word = bits[w];
+		}
+	}
+
+	/**
+	 * Calculate the set of points which are in <code>s</code> or adjacent to
+	 * a point in <code>s</code>. <code>s</code> and <code>d</code> must be
+	 * different arrays.
+	 *
+	 * @param s
+	 *            - the source set
+	 * @param d
+	 *            - the destination set
+	 */
+	void dilate(long[] s, long[] d)
+	{
+		final int n = size;
+		final int last = words - 1;
+		for (int i = 0; i <= last; i++) {
+			long w = s[i];
+			long prev = i > 0 ? s[i - 1] : 0;
+			long next = i < last ? s[i + 1] : 0;
+			long east = (w << 1) | (prev >>> 63);
+			long west = (w >>> 1) | (next << 63);
+			long south = (w << n) | (prev >>> (64 - n));
+			long north = (w >>> n) | (next << (64 - n));
+			d[i] = (w | (east & notFirstColumn[i]) | (west & notLastColumn[i])
+					| south | north)
+					& board[i];
+		}
+	}
+
+	/**
+	 * Flood fill the connected component of <code>seed</code> within
+	 * <code>mask</code>.
+	 *
+	 * @param seed
+	 *            - the start set; must be a subset of <code>mask</code>
+	 * @param mask
+	 *            - the set of points the fill may spread to
+	 * @param result
+	 *            - receives the component
+	 * @param tmp
+	 *            - scratch space
+	 */
+	void fill(long[] seed, long[] mask, long[] result, long[] tmp)
+	{
+		System.arraycopy(seed, 0, result, 0, words);
+		boolean changed = true;
+		while (changed) {
+			dilate(result, tmp);
+			changed = false;
+			for (int i = 0; i < words; i++) {
+				long w = tmp[i] & mask[i];
+				if (w != result[i]) {
+					result[i] = w;
+					changed = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check if the set <code>chain</code> has a liberty, i.e. an adjacent
+	 * point which is in <code>empty</code>.
+	 */
+	boolean hasLiberty(long[] chain, long[] empty, long[] tmp)
+	{
+		dilate(chain, tmp);
+		for (int i = 0; i < words; i++)
+			if ((tmp[i] & empty[i]) != 0)
+				return true;
+		return false;
+	}
+}
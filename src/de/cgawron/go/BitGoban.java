@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Vector;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Goban} which represents the board as two bitsets, one for the black
+ * and one for the white stones. A 19x19 board needs six <code>long</code>s
+ * per color, so copying, cloning and comparing positions is cheap. Chains and
+ * liberties are computed with word-wide flood fills.
+ *
+ * @author Christian Gawron
+ * @see BitBoard
+ */
+public class BitGoban extends AbstractGoban implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	private static Logger logger = Logger.getLogger(BitGoban.class.getName());
+
+	private transient BitBoard bits;
+	private int size;
+	private long[] black;
+	private long[] white;
+
+	private Point lastMove;
+	private int whiteCaptured;
+	private int blackCaptured;
+
+	/** Scratch space for move(), allocated on demand and never copied. */
+	private transient long[][] scratch;
+
+	/** Create a BitGoban with default board size of 19x19. */
+	public BitGoban()
+	{
+		this(19);
+	}
+
+	/** Create a BitGoban with a given board size. */
+	public BitGoban(int size)
+	{
+		super();
+		setBoardSize(size);
+	}
+
+	/**
+	 * Create a BitGoban which copies the board of another Goban
+	 *
+	 * @param m
+	 *            - the Goban to copy
+	 */
+	public BitGoban(Goban m)
+	{
+		super();
+		if (m != null)
+			copy(m);
+		else
+			setBoardSize(19);
+	}
+
+	private void init(int s)
+	{
+		size = s;
+		bits = BitBoard.forSize(s);
+		black = new long[bits.words];
+		white = new long[bits.words];
+		scratch = null;
+		clearHash();
+	}
+
+	private void readObject(java.io.ObjectInputStream in)
+			throws java.io.IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		long[] b = black;
+		long[] w = white;
+		init(size);
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < size; j++) {
+				int k = j * size + i;
+				if (BitBoard.get(b, k))
+					setStone(i, j, BoardType.BLACK);
+				else if (BitBoard.get(w, k))
+					setStone(i, j, BoardType.WHITE);
+			}
+	}
+
+	private BitBoard bits()
+	{
+		if (bits == null)
+			bits = BitBoard.forSize(size);
+		return bits;
+	}
+
+	public void setBoardSize(int s)
+	{
+		if (size != s) {
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("setBoardSize: " + s);
+			init(s);
+		}
+	}
+
+	final public int getBoardSize()
+	{
+		return size;
+	}
+
+	public void copy(Goban m)
+	{
+		if (m instanceof BitGoban) {
+			BitGoban bm = (BitGoban) m;
+			if (size != bm.size)
+				init(bm.size);
+			System.arraycopy(bm.black, 0, black, 0, black.length);
+			System.arraycopy(bm.white, 0, white, 0, white.length);
+			copyHash(bm);
+			lastMove = bm.lastMove;
+		} else {
+			init(m.getBoardSize());
+			for (int i = 0; i < size; i++)
+				for (int j = 0; j < size; j++)
+					setStone(i, j, m.getStone(i, j));
+			setKoPoint(m.getKoPoint());
+			setToMove(m.getToMove());
+			lastMove = m.getLastMove();
+		}
+		whiteCaptured = m.getWhiteCaptured();
+		blackCaptured = m.getBlackCaptured();
+		fireModelChanged();
+	}
+
+	public void clear()
+	{
+		Arrays.fill(black, 0);
+		Arrays.fill(white, 0);
+		clearHash();
+		lastMove = null;
+		whiteCaptured = 0;
+		blackCaptured = 0;
+		fireModelChanged();
+	}
+
+	public int getBlackCaptured()
+	{
+		return blackCaptured;
+	}
+
+	public int getWhiteCaptured()
+	{
+		return whiteCaptured;
+	}
+
+	public Point getLastMove()
+	{
+		return lastMove;
+	}
+
+	protected void setLastMove(Point p)
+	{
+		lastMove = p;
+	}
+
+	protected void setBlackCaptured(int n)
+	{
+		blackCaptured = n;
+	}
+
+	protected void setWhiteCaptured(int n)
+	{
+		whiteCaptured = n;
+	}
+
+	public BoardType getStone(Point p)
+	{
+		return getStone(p.getX(), p.getY());
+	}
+
+	public final BoardType getStone(int x, int y)
+	{
+		int i = y * size + x;
+		if (BitBoard.get(black, i))
+			return BoardType.BLACK;
+		else if (BitBoard.get(white, i))
+			return BoardType.WHITE;
+		else
+			return BoardType.EMPTY;
+	}
+
+	public BoardType getStone(int index)
+	{
+		if (BitBoard.get(black, index))
+			return BoardType.BLACK;
+		else if (BitBoard.get(white, index))
+			return BoardType.WHITE;
+		else
+			return BoardType.EMPTY;
+	}
+
+	protected void setStone(int x, int y, BoardType c)
+	{
+		updateHash(size, x, y, getStone(x, y), c);
+		int i = y * size + x;
+		BitBoard.clear(black, i);
+		BitBoard.clear(white, i);
+		if (c == BoardType.BLACK)
+			BitBoard.set(black, i);
+		else if (c == BoardType.WHITE)
+			BitBoard.set(white, i);
+	}
+
+	public void putStone(int x, int y, BoardType color)
+	{
+		setStone(x, y, color);
+		setKoPoint(null);
+		fireStoneAdded(x, y, color);
+	}
+
+	public void putStone(Point p, BoardType color)
+	{
+		putStone(p.getX(), p.getY(), color);
+	}
+
+	public void move(Point p, BoardType color)
+	{
+		move(p.getX(), p.getY(), color);
+	}
+
+	public void move(Point p, BoardType color, int moveNo)
+	{
+		move(p.getX(), p.getY(), color);
+	}
+
+	public void move(int x, int y, BoardType color)
+	{
+		if (x < 0 || y < 0 || x >= size || y >= size)
+			return;
+		if (getStone(x, y) != BoardType.EMPTY)
+			return;
+
+		setStone(x, y, color);
+		lastMove = Point.of(x, y);
+		setToMove(color.opposite());
+
+		BitBoard b = bits();
+		if (scratch == null)
+			scratch = new long[4][b.words];
+		long[] empty = scratch[0];
+		long[] seed = scratch[1];
+		long[] chain = scratch[2];
+		long[] tmp = scratch[3];
+
+		long[] own = color == BoardType.BLACK ? black : white;
+		long[] enemy = color == BoardType.BLACK ? white : black;
+		for (int i = 0; i < b.words; i++)
+			empty[i] = b.board[i] & ~(black[i] | white[i]);
+
+		Vector<Point> removed = null;
+		int p = y * size + x;
+		int captured = 0;
+		int capturedAt = -1;
+		Adjacency adj = Adjacency.forSize(size);
+		for (int k = adj.first(p), e = adj.end(p); k < e; k++) {
+			int q = adj.neighbours[k];
+			if (!BitBoard.get(enemy, q))
+				continue;
+			Arrays.fill(seed, 0);
+			BitBoard.set(seed, q);
+			b.fill(seed, enemy, chain, tmp);
+			if (!b.hasLiberty(chain, empty, tmp)) {
+				if (removed == null)
+					removed = new Vector<Point>();
+				capturedAt = q;
+				captured += removeChain(chain, enemy, empty, removed);
+			}
+		}
+
+		// A single stone capturing a single stone and having exactly one
+		// liberty left (the point of the captured stone) is a ko
+		Point ko = null;
+		if (captured == 1) {
+			int liberties = 0;
+			boolean single = true;
+			for (int k = adj.first(p), e = adj.end(p); k < e; k++) {
+				int q = adj.neighbours[k];
+				if (BitBoard.get(empty, q))
+					liberties++;
+				else if (BitBoard.get(own, q))
+					single = false;
+			}
+			if (single && liberties == 1)
+				ko = Point.of(adj.xOf[capturedAt], adj.yOf[capturedAt]);
+		}
+		setKoPoint(ko);
+
+		Arrays.fill(seed, 0);
+		BitBoard.set(seed, p);
+		b.fill(seed, own, chain, tmp);
+		if (!b.hasLiberty(chain, empty, tmp)) {
+			if (removed == null)
+				removed = new Vector<Point>();
+			removeChain(chain, own, empty, removed);
+		}
+
+		if (removed != null)
+			fireStonesRemoved(removed);
+		fireStoneAdded(x, y, color);
+	}
+
+	private int removeChain(long[] chain, long[] stones, long[] empty,
+			Vector<Point> removed)
+	{
+		BoardType c = stones == black ? BoardType.BLACK : BoardType.WHITE;
+		for (int i = 0; i < chain.length; i++) {
+			stones[i] &= ~chain[i];
+			empty[i] |= chain[i];
+		}
+		int n = 0;
+		for (int i = BitBoard.next(chain, 0); i >= 0; i = BitBoard
+				.next(chain, i + 1)) {
+			int x = i % size;
+			int y = i / size;
+			updateHash(size, x, y, c, BoardType.EMPTY);
+			removed.add(Point.of(x, y));
+			n++;
+		}
+
+		if (stones == black)
+			whiteCaptured += n;
+		else
+			blackCaptured += n;
+		return n;
+	}
+
+	public boolean equals(Object o)
+	{
+		if (o == this)
+			return true;
+		else if (o instanceof BitGoban) {
+			BitGoban goban = (BitGoban) o;
+			return size == goban.size && Arrays.equals(black, goban.black)
+					&& Arrays.equals(white, goban.white);
+		} else if (o instanceof Goban) {
+			Goban goban = (Goban) o;
+			if (goban.getBoardSize() != size)
+				return false;
+			for (int i = 0; i < size; i++)
+				for (int j = 0; j < size; j++)
+					if (getStone(i, j) != goban.getStone(i, j))
+						return false;
+			return true;
+		}
+		return false;
+	}
+
+	public Goban clone() throws CloneNotSupportedException
+	{
+		return new BitGoban(this);
+	}
+
+	public int estimateSize()
+	{
+		return super.estimateSize() + 2 * (16 + 8 * black.length);
+	}
+
+	public Goban newInstance()
+	{
+		return new BitGoban(size);
+	}
+
+	public String toString()
+	{
+		StringBuffer s = new StringBuffer(512);
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				BoardType p = getStone(i, j);
+				if (p == BoardType.WHITE)
+					s.append('O');
+				else if (p == BoardType.BLACK)
+					s.append('X');
+				else
+					s.append('.');
+			}
+			s.append('\n');
+		}
+		return s.toString();
+	}
+}
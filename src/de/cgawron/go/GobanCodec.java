@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import de.cgawron.go.Goban.BoardType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary snapshot of a {@link Goban}. A snapshot consists of a
+ * header of {@link #HEADER_SIZE} bytes
+ * <ul>
+ * <li>the version (byte)</li>
+ * <li>the board size (byte)</li>
+ * <li>the player to move, 0 for black and 1 for white (byte)</li>
+ * <li>reserved (byte)</li>
+ * <li>the index <code>y * size + x</code> of the last move or -1 (short)</li>
+ * <li>the index of the ko point or -1 (short)</li>
+ * <li>the number of stones captured by black (int)</li>
+ * <li>the number of stones captured by white (int)</li>
+ * </ul>
+ * followed by the stones, two bits per point and four points per byte, in
+ * the order of the point index. A 19x19 board takes 107 bytes.
+ * <p>
+ * Snapshots are read from and written to a {@link ByteBuffer} without
+ * intermediate copies; single points can be read directly from a buffer
+ * holding a snapshot.
+ *
+ * @author Christian Gawron
+ */
+public final class GobanCodec
+{
+	/** The version of the snapshot format. */
+	public static final byte VERSION = 1;
+
+	/** The size of the header of a snapshot. */
+	public static final int HEADER_SIZE = 16;
+
+	private static final int OFFSET_SIZE = 1;
+	private static final int OFFSET_STONES = HEADER_SIZE;
+
+	private static final int EMPTY = 0;
+	private static final int BLACK = 1;
+	private static final int WHITE = 2;
+
+	private static final BoardType[] STONES = { BoardType.EMPTY,
+			BoardType.BLACK, BoardType.WHITE, BoardType.EMPTY };
+
+	private GobanCodec()
+	{
+	}
+
+	/**
+	 * Get the size of the snapshot of a board.
+	 *
+	 * @param boardSize
+	 *            - the board size
+	 * @return the size in bytes
+	 */
+	public static int encodedSize(int boardSize)
+	{
+		return HEADER_SIZE + (boardSize * boardSize + 3) / 4;
+	}
+
+	/**
+	 * Write a snapshot at the current position of a buffer. The position is
+	 * advanced past the snapshot.
+	 *
+	 * @param goban
+	 *            - the board
+	 * @param buffer
+	 *            - the buffer; {@link #encodedSize} bytes must remain
+	 */
+	public static void write(Goban goban, ByteBuffer buffer)
+	{
+		int size = goban.getBoardSize();
+		buffer.put(VERSION);
+		buffer.put((byte) size);
+		buffer.put((byte) (goban.getToMove() == BoardType.WHITE ? 1 : 0));
+		buffer.put((byte) 0);
+		buffer.putShort((short) index(goban.getLastMove(), size));
+		buffer.putShort((short) index(goban.getKoPoint(), size));
+		buffer.putInt(goban.getBlackCaptured());
+		buffer.putInt(goban.getWhiteCaptured());
+
+		int n = size * size;
+		int bits = 0;
+		int shift = 0;
+		for (int i = 0; i < n; i++) {
+			BoardType stone = goban.getStone(i % size, i / size);
+			if (stone == BoardType.BLACK)
+				bits |= BLACK << shift;
+			else if (stone == BoardType.WHITE)
+				bits |= WHITE << shift;
+			shift += 2;
+			if (shift == 8) {
+				buffer.put((byte) bits);
+				bits = 0;
+				shift = 0;
+			}
+		}
+		if (shift != 0)
+			buffer.put((byte) bits);
+	}
+
+	/**
+	 * Read a snapshot from the current position of a buffer into a board.
+	 * The position is advanced past the snapshot. The listeners of the board
+	 * are notified by a single event.
+	 *
+	 * @param buffer
+	 *            - the buffer
+	 * @param goban
+	 *            - the board to set up
+	 * @throws IllegalArgumentException
+	 *             if the buffer does not hold a valid snapshot; the board
+	 *             is not changed then
+	 */
+	public static void read(ByteBuffer buffer, AbstractGoban goban)
+	{
+		if (buffer.remaining() < HEADER_SIZE
+				|| buffer.get(buffer.position()) != VERSION)
+			throw new IllegalArgumentException("not a goban snapshot");
+		buffer.get();
+		int size = buffer.get() & 0xff;
+		BoardType toMove = buffer.get() == 1 ? BoardType.WHITE
+				: BoardType.BLACK;
+		buffer.get();
+		int lastMove = buffer.getShort();
+		int ko = buffer.getShort();
+		int blackCaptured = buffer.getInt();
+		int whiteCaptured = buffer.getInt();
+		int n = size * size;
+		if (size < 1 || size > Point.MAX_SIZE)
+			throw new IllegalArgumentException("invalid board size " + size);
+		if (lastMove < -1 || lastMove >= n || ko < -1 || ko >= n)
+			throw new IllegalArgumentException("invalid point in snapshot");
+		if (buffer.remaining() < (n + 3) / 4)
+			throw new IllegalArgumentException("truncated goban snapshot");
+
+		goban.beginUpdate();
+		try {
+			goban.setBoardSize(size);
+			goban.clear();
+			int bits = 0;
+			for (int i = 0; i < n; i++) {
+				if ((i & 3) == 0)
+					bits = buffer.get();
+				int stone = (bits >> ((i & 3) << 1)) & 3;
+				if (stone != EMPTY)
+					goban.putStone(i % size, i / size, STONES[stone]);
+			}
+			goban.setLastMove(point(lastMove, size));
+			goban.setKoPoint(point(ko, size));
+			goban.setToMove(toMove);
+			goban.setBlackCaptured(blackCaptured);
+			goban.setWhiteCaptured(whiteCaptured);
+		} finally {
+			goban.endUpdate();
+		}
+	}
+
+	/**
+	 * Get the board size of a snapshot.
+	 *
+	 * @param buffer
+	 *            - the buffer
+	 * @param offset
+	 *            - the offset of the snapshot in the buffer
+	 */
+	public static int getBoardSize(ByteBuffer buffer, int offset)
+	{
+		return buffer.get(offset + OFFSET_SIZE) & 0xff;
+	}
+
+	/**
+	 * Get a point of a snapshot without decoding it.
+	 *
+	 * @param buffer
+	 *            - the buffer
+	 * @param offset
+	 *            - the offset of the snapshot in the buffer
+	 * @param x
+	 *            - the column
+	 * @param y
+	 *            - the row
+	 * @return the stone at (x, y)
+	 */
+	public static BoardType getStone(ByteBuffer buffer, int offset, int x,
+			int y)
+	{
+		int i = y * getBoardSize(buffer, offset) + x;
+		int bits = buffer.get(offset + OFFSET_STONES + (i >> 2));
+		return STONES[(bits >> ((i & 3) << 1)) & 3];
+	}
+
+	private static int index(Point p, int size)
+	{
+		if (p == null || p.getX() < 0 || p.getY() < 0 || p.getX() >= size
+				|| p.getY() >= size)
+			return -1;
+		return p.getY() * size + p.getX();
+	}
+
+	private static Point point(int index, int size)
+	{
+		return index < 0 ? null : Point.of(index % size, index / size);
+	}
+}
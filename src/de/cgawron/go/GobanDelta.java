@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import de.cgawron.go.Goban.BoardType;
+
+/**
+ * The changes made to a {@link Goban} by {@link Goban#play} or between
+ * {@link AbstractGoban#beginDelta} and {@link AbstractGoban#endDelta}. A
+ * delta records the previous color of each changed point together with the
+ * state (last move, ko, player to move and capture counts) before the change,
+ * so {@link Goban#undo} can revert it in time proportional to the number of
+ * changed points.
+ *
+ * @author Christian Gawron
+ */
+public class GobanDelta
+{
+	private static final BoardType[] types = BoardType.values();
+
+	private final Point point;
+	private final BoardType color;
+
+	private final Point lastMove;
+	private final Point koPoint;
+	private final BoardType toMove;
+	private final int blackCaptured;
+	private final int whiteCaptured;
+
+	/** The changed points (packed) and their previous colors. */
+	private int[] changes = new int[4];
+	private int count;
+
+	/**
+	 * Create a delta starting at the current state of <code>goban</code>.
+	 *
+	 * @param goban
+	 *            - the goban which will be changed
+	 * @param point
+	 *            - the point of the move or <code>null</code>
+	 * @param color
+	 *            - the color of the move or <code>null</code>
+	 */
+	protected GobanDelta(Goban goban, Point point, BoardType color)
+	{
+		this.point = point;
+		this.color = color;
+		this.lastMove = goban.getLastMove();
+		this.koPoint = goban.getKoPoint();
+		this.toMove = goban.getToMove();
+		this.blackCaptured = goban.getBlackCaptured();
+		this.whiteCaptured = goban.getWhiteCaptured();
+	}
+
+	/** Record that the stone at (x, y) was <code>old</code> before. */
+	void record(int x, int y, BoardType old)
+	{
+		if (count == changes.length) {
+			int[] c = new int[2 * count];
+			System.arraycopy(changes, 0, c, 0, count);
+			changes = c;
+		}
+		changes[count++] = (Point.pack(x, y) << 2) | old.ordinal();
+	}
+
+	/**
+	 * Get the point of the move.
+	 *
+	 * @return the point or <code>null</code> if this delta does not belong
+	 *         to a move
+	 */
+	public Point getPoint()
+	{
+		return point;
+	}
+
+	/**
+	 * Get the color of the move.
+	 *
+	 * @return the color or <code>null</code> if this delta does not belong
+	 *         to a move
+	 */
+	public BoardType getColor()
+	{
+		return color;
+	}
+
+	/**
+	 * Get the number of changes recorded. A point may be changed more than
+	 * once.
+	 */
+	public int size()
+	{
+		return count;
+	}
+
+	/** Get the point of the i-th change. */
+	public Point getChangedPoint(int i)
+	{
+		return Point.unpack(changes[i] >>> 2);
+	}
+
+	/** Get the color of the point before the i-th change. */
+	public BoardType getPreviousColor(int i)
+	{
+		return types[changes[i] & 3];
+	}
+
+	/**
+	 * Get the points of the stones removed from the board, i.e. the stones
+	 * captured by the move (or the stones of a suicide).
+	 *
+	 * @return the removed stones
+	 */
+	public Point[] getCaptured()
+	{
+		int n = 0;
+		for (int i = 0; i < count; i++)
+			if ((changes[i] & 3) != BoardType.EMPTY.ordinal())
+				n++;
+		Point[] captured = new Point[n];
+		n = 0;
+		for (int i = 0; i < count; i++)
+			if ((changes[i] & 3) != BoardType.EMPTY.ordinal())
+				captured[n++] = getChangedPoint(i);
+		return captured;
+	}
+
+	public Point getLastMove()
+	{
+		return lastMove;
+	}
+
+	public Point getKoPoint()
+	{
+		return koPoint;
+	}
+
+	public BoardType getToMove()
+	{
+		return toMove;
+	}
+
+	public int getBlackCaptured()
+	{
+		return blackCaptured;
+	}
+
+	public int getWhiteCaptured()
+	{
+		return whiteCaptured;
+	}
+
+	public String toString()
+	{
+		return "GobanDelta[" + color + " " + point + ", " + count
+				+ " changes]";
+	}
+}
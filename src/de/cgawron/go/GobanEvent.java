@@ -119,7 +119,7 @@ public class GobanEvent extends EventObject
 	{
 		super(source);
 		points = new Vector<Point>();
-		addPoint(new Point(x, y));
+		addPoint(Point.of(x, y));
 		color = c;
 	}
 }
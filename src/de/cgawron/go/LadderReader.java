@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads ladders. A string with one liberty escapes if its owner, being to
+ * move, can reach three liberties or reach two liberties such that no atari
+ * works; a string with two liberties is captured if the opponent, being to
+ * move, has an atari from which the string does not escape. The defender
+ * tries to extend at its liberty and to capture adjacent strings in atari.
+ * <p>
+ * Reading is done on a {@link ScratchBoard} with undo and allocates nothing
+ * per move. The search is bounded in depth and in the number of moves; if a
+ * bound is hit the result is {@link Result#UNKNOWN}. Results are cached by
+ * the Zobrist hash of the position in its identity orientation and the point
+ * of the string; the symmetry invariant hash would mix up mirrored
+ * positions, as the point is not transformed.
+ * <p>
+ * A LadderReader reuses its scratch space and must not be shared between
+ * threads.
+ *
+ * @author Christian Gawron
+ */
+public class LadderReader
+{
+	private static Logger logger = Logger.getLogger(LadderReader.class
+			.getName());
+
+	/** The result of reading a ladder. */
+	public enum Result
+	{
+		/** The string is captured. */
+		CAPTURED,
+		/** The string escapes or has more than two liberties. */
+		ESCAPES,
+		/** The reading was aborted. */
+		UNKNOWN
+	}
+
+	/** The default depth bound in moves. */
+	public static final int DEFAULT_MAX_DEPTH = 120;
+
+	/** The maximal number of moves played per query. */
+	private static final int MAX_MOVES = 5000;
+
+	/** The maximal number of moves tried by the defender. */
+	private static final int MAX_DEFENCES = 8;
+
+	private static final int CACHE_SIZE = 1 << 10;
+
+	private static final Result[] RESULTS = Result.values();
+
+	private final int maxDepth;
+	private final ScratchBoard board = new ScratchBoard();
+
+	/** The candidate moves of each level. */
+	private final int[][] candidates;
+	private int[] libs = new int[2];
+	private int[] stones = new int[0];
+	private int moves;
+	private boolean aborted;
+
+	/** A direct mapped cache of the results. */
+	private final long[] cacheKeys = new long[CACHE_SIZE];
+	private final byte[] cacheResults = new byte[CACHE_SIZE];
+
+	public LadderReader()
+	{
+		this(DEFAULT_MAX_DEPTH);
+	}
+
+	/**
+	 * Create a LadderReader.
+	 *
+	 * @param maxDepth
+	 *            - the maximal number of moves read ahead
+	 */
+	public LadderReader(int maxDepth)
+	{
+		this.maxDepth = maxDepth;
+		this.candidates = new int[maxDepth + 1][MAX_DEFENCES];
+	}
+
+	/**
+	 * Read the ladder of a string. A string with one liberty is read with its
+	 * owner to move, a string with two liberties with the opponent to move.
+	 *
+	 * @param goban
+	 *            - the position
+	 * @param p
+	 *            - a stone of the string
+	 * @return the result
+	 * @throws IllegalArgumentException
+	 *             if there is no stone at <code>p</code>
+	 */
+	public Result read(Goban goban, Point p)
+	{
+		if (goban.getStone(p) == Goban.BoardType.EMPTY)
+			throw new IllegalArgumentException("no stone at " + p);
+		int size = goban.getBoardSize();
+		int index = p.getY() * size + p.getX();
+		long key = goban.zobristHash(Symmetry.of(0)) ^ (index + 1)
+				* 0x9e3779b97f4a7c15L;
+		if (key == 0)
+			key = 1;
+		int slot = (int) (key ^ (key >>> 32)) & (CACHE_SIZE - 1);
+		if (cacheKeys[slot] == key)
+			return RESULTS[cacheResults[slot]];
+
+		board.setup(goban);
+		Result result = read(index);
+		cacheKeys[slot] = key;
+		cacheResults[slot] = (byte) result.ordinal();
+		return result;
+	}
+
+	/**
+	 * Find the strings captured in a ladder, i.e. the strings with one or two
+	 * liberties for which {@link #read} returns {@link Result#CAPTURED}.
+	 *
+	 * @param goban
+	 *            - the position
+	 * @return the stones of these strings
+	 */
+	public List<Point> findCaptured(Goban goban)
+	{
+		List<Point> captured = new ArrayList<Point>();
+		int size = goban.getBoardSize();
+		boolean[] seen = new boolean[size * size];
+		board.setup(goban);
+		int[] string = new int[size * size];
+		for (int i = 0; i < seen.length; i++) {
+			if (seen[i] || board.get(i) == ScratchBoard.EMPTY)
+				continue;
+			int n = board.stones(i, string);
+			for (int j = 0; j < n; j++)
+				seen[string[j]] = true;
+			if (board.liberties(i, 3, null) > 2)
+				continue;
+			if (read(goban, Point.of(i % size, i / size)) == Result.CAPTURED) {
+				for (int j = 0; j < n; j++)
+					captured.add(Point.of(string[j] % size, string[j] / size));
+			}
+			board.setup(goban);
+		}
+		return captured;
+	}
+
+	private Result read(int p)
+	{
+		moves = 0;
+		aborted = false;
+		int n = board.getBoardSize() * board.getBoardSize();
+		if (stones.length < n)
+			stones = new int[n];
+
+		Result result;
+		int liberties = board.liberties(p, 3, null);
+		if (liberties == 1)
+			result = defend(p, 0) ? Result.ESCAPES : Result.CAPTURED;
+		else if (liberties == 2)
+			result = attack(p, 0) ? Result.CAPTURED : Result.ESCAPES;
+		else
+			result = Result.ESCAPES;
+		if (aborted)
+			result = Result.UNKNOWN;
+
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("read: " + p + " -> " + result + " after " + moves
+					+ " moves");
+		return result;
+	}
+
+	/**
+	 * Try to capture the string at <code>p</code>, which has two liberties,
+	 * with the attacker to move.
+	 *
+	 * @return <code>true</code> if the string is captured
+	 */
+	private boolean attack(int p, int depth)
+	{
+		if (depth >= maxDepth || moves >= MAX_MOVES) {
+			aborted = true;
+			return false;
+		}
+		byte attacker = (byte) (ScratchBoard.BLACK + ScratchBoard.WHITE - board
+				.get(p));
+		int[] c = candidates[depth];
+		board.liberties(p, 2, libs);
+		c[0] = libs[0];
+		c[1] = libs[1];
+		for (int i = 0; i < 2; i++) {
+			if (!board.play(c[i], attacker))
+				continue;
+			moves++;
+			boolean captured = board.liberties(p, 2, null) == 1
+					&& !defend(p, depth + 1);
+			board.undo();
+			if (captured)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Try to save the string at <code>p</code>, which has one liberty, with
+	 * the defender to move.
+	 *
+	 * @return <code>true</code> if the string escapes
+	 */
+	private boolean defend(int p, int depth)
+	{
+		if (depth >= maxDepth || moves >= MAX_MOVES) {
+			aborted = true;
+			return true;
+		}
+		byte defender = board.get(p);
+		int[] c = candidates[depth];
+		int count = 0;
+
+		// capture an adjacent string in atari
+		Adjacency adj = board.getAdjacency();
+		int n = board.stones(p, stones);
+		for (int i = 0; i < n && count < MAX_DEFENCES - 1; i++) {
+			int q = stones[i];
+			for (int k = adj.first(q); k < adj.end(q)
+					&& count < MAX_DEFENCES - 1; k++) {
+				int r = adj.neighbour(k);
+				byte stone = board.get(r);
+				if (stone != ScratchBoard.EMPTY && stone != defender
+						&& board.liberties(r, 2, libs) == 1
+						&& !contains(c, count, libs[0]))
+					c[count++] = libs[0];
+			}
+		}
+		// extend
+		board.liberties(p, 1, libs);
+		if (!contains(c, count, libs[0]))
+			c[count++] = libs[0];
+
+		for (int i = 0; i < count; i++) {
+			if (!board.play(c[i], defender))
+				continue;
+			moves++;
+			int liberties = board.liberties(p, 3, null);
+			boolean escaped = liberties > 2
+					|| (liberties == 2 && !attack(p, depth + 1));
+			board.undo();
+			if (escaped)
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean contains(int[] a, int n, int value)
+	{
+		for (int i = 0; i < n; i++)
+			if (a[i] == value)
+				return true;
+		return false;
+	}
+}
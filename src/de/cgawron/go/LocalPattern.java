@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import de.cgawron.go.Goban.BoardType;
+
+/**
+ * A local shape on a goban: either the square around a point (e.g. 3x3 or
+ * 5x5) or the square in a corner of the board. A pattern is identified by a
+ * 64 bit hash which is invariant under the symmetries of the shape and under
+ * the exchange of colors, so a pattern matches all rotated, reflected and
+ * color reversed occurrences.
+ * <p>
+ * Points outside of the board are part of the pattern, so a pattern taken at
+ * the edge of the board only matches at the edge.
+ *
+ * @author Christian Gawron
+ */
+public class LocalPattern
+{
+	/** The kind of region covered by a pattern. */
+	public enum Type
+	{
+		/** The square centered on a point. */
+		CENTER,
+		/** The square in a corner of the board. */
+		CORNER
+	}
+
+	/** The states of a cell of a pattern. */
+	static final byte EMPTY = 0;
+	static final byte BLACK = 1;
+	static final byte WHITE = 2;
+	static final byte EDGE = 3;
+
+	/** The symmetries of a corner region: identity and the diagonal. */
+	private static final int[] CORNER_SYMMETRIES = { 0, 4 };
+	private static final int[] CENTER_SYMMETRIES = { 0, 1, 2, 3, 4, 5, 6, 7 };
+
+	/** The key tables indexed by the width of the pattern. */
+	private static final long[][] keys = new long[Point.MAX_SIZE + 1][];
+
+	/**
+	 * The keys and the cell permutations used to hash the patterns of a
+	 * width. They are looked up once, e.g. per matcher or index, instead of
+	 * on every hash.
+	 */
+	public static final class Keys
+	{
+		private final int width;
+		private final long[] keys;
+		private final int[][] permutations;
+
+		/**
+		 * Get the keys for patterns of a width.
+		 *
+		 * @param width
+		 *            - the width of the patterns
+		 */
+		public Keys(int width)
+		{
+			this.width = width;
+			this.keys = keys(width);
+			this.permutations = Symmetry.permutations(width);
+		}
+
+		public int getWidth()
+		{
+			return width;
+		}
+	}
+
+	private final Type type;
+	private final int width;
+	private final byte[] cells;
+	private final long hash;
+
+	/**
+	 * Create the pattern of the square around a point.
+	 *
+	 * @param goban
+	 *            - the position
+	 * @param center
+	 *            - the center of the square
+	 * @param width
+	 *            - the (odd) width of the square, e.g. 3 or 5
+	 */
+	public LocalPattern(Goban goban, Point center, int width)
+	{
+		this(Type.CENTER, width, centerCells(goban, center, width));
+	}
+
+	/**
+	 * Create the pattern of a corner.
+	 *
+	 * @param goban
+	 *            - the position
+	 * @param corner
+	 *            - the corner: 0 is (0, 0), 1 is (size - 1, 0), 2 is (0,
+	 *            size - 1) and 3 is (size - 1, size - 1)
+	 * @param width
+	 *            - the width of the square
+	 */
+	public static LocalPattern corner(Goban goban, int corner, int width)
+	{
+		byte[] cells = new byte[width * width];
+		readCorner(goban, corner, width, cells);
+		return new LocalPattern(Type.CORNER, width, cells);
+	}
+
+	private LocalPattern(Type type, int width, byte[] cells)
+	{
+		this.type = type;
+		this.width = width;
+		this.cells = cells;
+		this.hash = hash(new Keys(width), type, cells);
+	}
+
+	private static byte[] centerCells(Goban goban, Point center, int width)
+	{
+		if ((width & 1) == 0)
+			throw new IllegalArgumentException("width must be odd: " + width);
+		byte[] cells = new byte[width * width];
+		readCenter(goban, center.getX(), center.getY(), width, cells);
+		return cells;
+	}
+
+	public Type getType()
+	{
+		return type;
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	/** Get the symmetry and color invariant hash of this pattern. */
+	public long getHash()
+	{
+		return hash;
+	}
+
+	/**
+	 * Get the stone at a cell of the pattern.
+	 *
+	 * @param x
+	 *            - the column, 0 &lt;= x &lt; width
+	 * @param y
+	 *            - the row, 0 &lt;= y &lt; width
+	 * @return the stone or <code>null</code> if the cell is outside of the
+	 *         board
+	 */
+	public BoardType getStone(int x, int y)
+	{
+		switch (cells[y * width + x]) {
+		case BLACK:
+			return BoardType.BLACK;
+		case WHITE:
+			return BoardType.WHITE;
+		case EDGE:
+			return null;
+		default:
+			return BoardType.EMPTY;
+		}
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (o instanceof LocalPattern) {
+			LocalPattern p = (LocalPattern) o;
+			return type == p.type && width == p.width
+					&& hash == p.hash;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	public String toString()
+	{
+		StringBuffer buffer = new StringBuffer();
+		buffer.append(type).append(' ').append(width).append('x').append(
+				width);
+		for (int y = 0; y < width; y++) {
+			buffer.append('\n');
+			for (int x = 0; x < width; x++)
+				buffer.append(".XO#".charAt(cells[y * width + x]));
+		}
+		return buffer.toString();
+	}
+
+	/**
+	 * Read the square of width <code>width</code> around (cx, cy).
+	 */
+	static void readCenter(Goban goban, int cx, int cy, int width,
+			byte[] cells)
+	{
+		int size = goban.getBoardSize();
+		int r = width / 2;
+		int i = 0;
+		for (int y = cy - r; y <= cy + r; y++)
+			for (int x = cx - r; x <= cx + r; x++)
+				cells[i++] = cell(goban, size, x, y);
+	}
+
+	/**
+	 * Read the square of width <code>width</code> in a corner. The cells are
+	 * read such that the corner point is cell (0, 0).
+	 */
+	static void readCorner(Goban goban, int corner, int width, byte[] cells)
+	{
+		int size = goban.getBoardSize();
+		int i = 0;
+		for (int y = 0; y < width; y++)
+			for (int x = 0; x < width; x++)
+				cells[i++] = cell(goban, size, (corner & 1) != 0 ? size - 1
+						- x : x, (corner & 2) != 0 ? size - 1 - y : y);
+	}
+
+	private static byte cell(Goban goban, int size, int x, int y)
+	{
+		if (x < 0 || y < 0 || x >= size || y >= size)
+			return EDGE;
+		switch (goban.getStone(x, y)) {
+		case BLACK:
+			return BLACK;
+		case WHITE:
+			return WHITE;
+		default:
+			return EMPTY;
+		}
+	}
+
+	/**
+	 * Calculate the invariant hash of a pattern, i.e. the minimum of the
+	 * hashes of all its symmetric and color reversed variants. Empty cells
+	 * don't contribute, so the empty pattern has the hash 0.
+	 */
+	static long hash(Keys keys, Type type, byte[] cells)
+	{
+		long[] k = keys.keys;
+		int[][] permutations = keys.permutations;
+		int[] symmetries = type == Type.CORNER ? CORNER_SYMMETRIES
+				: CENTER_SYMMETRIES;
+		long min = Long.MAX_VALUE;
+		for (int s : symmetries) {
+			int[] p = permutations[s];
+			long h = 0;
+			long reversed = 0;
+			for (int i = 0; i < cells.length; i++) {
+				int c = cells[i];
+				if (c == EMPTY)
+					continue;
+				int t = p[i] << 2;
+				h ^= k[t + c];
+				// black and white exchanged
+				reversed ^= k[t + (c == EDGE ? EDGE : BLACK + WHITE - c)];
+			}
+			if (h < min)
+				min = h;
+			if (reversed < min)
+				min = reversed;
+		}
+		return min;
+	}
+
+	/**
+	 * Calculate the hash of a corner of a position. Unlike {@link #getHash},
+	 * colors are kept apart and only one orientation is hashed, so the caller
+	 * knows how the points of the board relate to the hashed cells.
+	 *
+	 * @param keys
+	 *            - the keys for the width of the square
+	 * @param goban
+	 *            - the position
+	 * @param corner
+	 *            - the corner as in {@link #corner}
+	 * @param transposed
+	 *            - if the square is reflected at the diagonal through the
+	 *            corner point
+	 * @return the hash; 0 if the corner is empty
+	 */
+	public static long cornerHash(Keys keys, Goban goban, int corner,
+			boolean transposed)
+	{
+		int width = keys.width;
+		byte[] cells = new byte[width * width];
+		readCorner(goban, corner, width, cells);
+		long[] k = keys.keys;
+		int[] p = keys.permutations[transposed ? 4 : 0];
+		long h = 0;
+		for (int i = 0; i < cells.length; i++)
+			if (cells[i] != EMPTY)
+				h ^= k[(p[i] << 2) + cells[i]];
+		return h;
+	}
+
+	/**
+	 * Get the key table for patterns of a width.
+	 *
+	 * @return the (shared) table; <code>4 * cell + state</code> is the key
+	 *         of a state of a cell
+	 */
+	private static long[] keys(int width)
+	{
+		synchronized (keys) {
+			if (keys[width] == null)
+				keys[width] = Zobrist.generate(0x7f4a7c159e3779b9L * width,
+						4 * width * width);
+			return keys[width];
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import de.cgawron.go.Goban.BoardType;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks the legality of moves. A move is illegal if it is played on an
+ * occupied point, if it is a suicide, if it retakes a ko immediately or if it
+ * repeats a position of the game (positional superko).
+ * <p>
+ * The validator works on its own copy of the position. The positions of the
+ * game are kept as a multiset of their Zobrist hashes, which is updated by
+ * {@link #play} and {@link #undo}, so walking forth and back through a game
+ * tree costs no more than playing the moves.
+ *
+ * @author Christian Gawron
+ */
+public class MoveValidator
+{
+	private static Logger logger = Logger.getLogger(MoveValidator.class
+			.getName());
+
+	/** The result of a check. */
+	public enum Result
+	{
+		LEGAL, OUT_OF_BOARD, OCCUPIED, SUICIDE, KO, SUPERKO
+	}
+
+	private static final Symmetry IDENTITY = new Symmetry();
+
+	private final SimpleGoban board;
+
+	/** The number of occurrences of each position hash. */
+	private final Map<Long, Integer> positions = new HashMap<Long, Integer>();
+
+	/** The hashes of the positions added by {@link #play}. */
+	private long[] path = new long[64];
+	private int depth;
+
+	/**
+	 * Create a validator starting at a position.
+	 *
+	 * @param goban
+	 *            - the position; it is copied
+	 */
+	public MoveValidator(Goban goban)
+	{
+		board = new SimpleGoban(goban);
+		addPosition(positionHash(board));
+	}
+
+	/**
+	 * Get the hash of the stones on the board used to detect repeated
+	 * positions.
+	 */
+	public static long positionHash(Goban goban)
+	{
+		return goban.zobristHash(IDENTITY);
+	}
+
+	/**
+	 * Add a position to the history, e.g. a position of the game which was
+	 * played before the position passed to the constructor.
+	 *
+	 * @param hash
+	 *            - the hash of the position as returned by
+	 *            {@link #positionHash}
+	 */
+	public void addPosition(long hash)
+	{
+		Integer n = positions.get(hash);
+		positions.put(hash, n == null ? 1 : n + 1);
+	}
+
+	private void removePosition(long hash)
+	{
+		Integer n = positions.get(hash);
+		if (n == null || n == 1)
+			positions.remove(hash);
+		else
+			positions.put(hash, n - 1);
+	}
+
+	/**
+	 * Get the current position. It must not be modified.
+	 */
+	public Goban getGoban()
+	{
+		return board;
+	}
+
+	/**
+	 * Check if <code>color</code> may play at <code>p</code>.
+	 *
+	 * @param p
+	 *            - the point of the move or <code>null</code> for a pass
+	 * @param color
+	 *            - the color of the move
+	 * @return {@link Result#LEGAL} or the reason why the move is illegal
+	 */
+	public Result check(Point p, BoardType color)
+	{
+		if (p == null)
+			return Result.LEGAL;
+		int size = board.getBoardSize();
+		if (p.getX() < 0 || p.getY() < 0 || p.getX() >= size
+				|| p.getY() >= size)
+			return Result.OUT_OF_BOARD;
+		if (board.getStone(p) != BoardType.EMPTY)
+			return Result.OCCUPIED;
+		if (p.equals(board.getKoPoint()) && color == board.getToMove())
+			return Result.KO;
+
+		GobanDelta delta = board.play(p, color);
+		try {
+			if (board.getStone(p) == BoardType.EMPTY)
+				return Result.SUICIDE;
+			else if (positions.containsKey(positionHash(board)))
+				return Result.SUPERKO;
+			else
+				return Result.LEGAL;
+		} finally {
+			board.undo(delta);
+		}
+	}
+
+	/**
+	 * Get all legal moves of a player.
+	 *
+	 * @param color
+	 *            - the player
+	 * @return a set containing <code>y * size + x</code> for each legal move
+	 *         at (x, y)
+	 */
+	public BitSet legalMoves(BoardType color)
+	{
+		int size = board.getBoardSize();
+		BitSet legal = new BitSet(size * size);
+		for (int y = 0; y < size; y++)
+			for (int x = 0; x < size; x++)
+				if (board.getStone(x, y) == BoardType.EMPTY
+						&& check(Point.of(x, y), color) == Result.LEGAL)
+					legal.set(y * size + x);
+		return legal;
+	}
+
+	/**
+	 * Play a move and add the resulting position to the history. The move is
+	 * not checked.
+	 *
+	 * @param p
+	 *            - the point of the move or <code>null</code> for a pass
+	 * @param color
+	 *            - the color of the move
+	 * @return the delta to pass to {@link #undo}
+	 */
+	public GobanDelta play(Point p, BoardType color)
+	{
+		GobanDelta delta;
+		if (p == null) {
+			board.beginDelta();
+			board.setKoPoint(null);
+			board.setToMove(color.opposite());
+			delta = board.endDelta();
+		} else
+			delta = board.play(p, color);
+
+		push();
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("play: " + color + " " + p + ", depth " + depth);
+		return delta;
+	}
+
+	/**
+	 * Start a setup of the board, i.e. stones added or removed with
+	 * {@link #putStone}.
+	 */
+	public void beginSetup()
+	{
+		board.beginDelta();
+	}
+
+	/**
+	 * Put a stone on the board without capturing. This must be called between
+	 * {@link #beginSetup} and {@link #endSetup}.
+	 *
+	 * @param p
+	 *            - the point
+	 * @param color
+	 *            - the color of the stone or <code>EMPTY</code> to remove a
+	 *            stone
+	 */
+	public void putStone(Point p, BoardType color)
+	{
+		if (board.getDelta() == null)
+			throw new IllegalStateException("putStone outside of a setup");
+		board.putStone(p, color);
+	}
+
+	/**
+	 * Finish a setup and add the resulting position to the history.
+	 *
+	 * @return the delta to pass to {@link #undo}
+	 */
+	public GobanDelta endSetup()
+	{
+		GobanDelta delta = board.endDelta();
+		push();
+		return delta;
+	}
+
+	private void push()
+	{
+		if (depth == path.length) {
+			long[] a = new long[2 * depth];
+			System.arraycopy(path, 0, a, 0, depth);
+			path = a;
+		}
+		long hash = positionHash(board);
+		path[depth++] = hash;
+		addPosition(hash);
+	}
+
+	/**
+	 * Take back the last move played with {@link #play} or the last setup.
+	 *
+	 * @param delta
+	 *            - the delta returned by {@link #play} or {@link #endSetup}
+	 */
+	public void undo(GobanDelta delta)
+	{
+		if (depth == 0)
+			throw new IllegalStateException("no move to undo");
+		removePosition(path[--depth]);
+		board.undo(delta);
+	}
+}
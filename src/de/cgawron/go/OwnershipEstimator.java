@@ -0,0 +1,396 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import de.cgawron.go.Goban.BoardType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Estimates the ownership of the points of a position by random playouts.
+ * A playout plays random legal moves, except moves filling an own eye, until
+ * both players pass, and scores the final position by area. The fraction of
+ * the playouts in which a player owns a point estimates the probability that
+ * the point belongs to this player.
+ * <p>
+ * The playouts are split between workers running on an
+ * {@link ExecutorService}. Each worker plays on its own
+ * {@link ScratchBoard} with its own random generator and counts the
+ * ownership in its own arrays, which are added up when all workers are done,
+ * so the workers share no mutable state.
+ *
+ * @author Christian Gawron
+ */
+public class OwnershipEstimator
+{
+	private static Logger logger = Logger.getLogger(OwnershipEstimator.class
+			.getName());
+
+	/** The result of an estimation. */
+	public static class Estimate
+	{
+		private final int size;
+		private final int playouts;
+		private final int[] black;
+		private final int[] white;
+		private final long scoreSum;
+		private final float komi;
+
+		Estimate(int size, int playouts, int[] black, int[] white,
+				long scoreSum, float komi)
+		{
+			this.size = size;
+			this.playouts = playouts;
+			this.black = black;
+			this.white = white;
+			this.scoreSum = scoreSum;
+			this.komi = komi;
+		}
+
+		public int getBoardSize()
+		{
+			return size;
+		}
+
+		public int getPlayouts()
+		{
+			return playouts;
+		}
+
+		/**
+		 * Get the probability that a point belongs to a player.
+		 *
+		 * @param x
+		 *            - the column
+		 * @param y
+		 *            - the row
+		 * @param color
+		 *            - the player
+		 */
+		public float getProbability(int x, int y, BoardType color)
+		{
+			int[] counts = color == BoardType.BLACK ? black : white;
+			return playouts == 0 ? 0 : (float) counts[y * size + x]
+					/ playouts;
+		}
+
+		/**
+		 * Get the ownership of a point.
+		 *
+		 * @return a value between 1 (black) and -1 (white)
+		 */
+		public float getOwnership(int x, int y)
+		{
+			return getProbability(x, y, BoardType.BLACK)
+					- getProbability(x, y, BoardType.WHITE);
+		}
+
+		/**
+		 * Get the mean result of the playouts.
+		 *
+		 * @return the area of black minus the area of white minus komi
+		 */
+		public float getScore()
+		{
+			return playouts == 0 ? -komi : (float) scoreSum / playouts
+					- komi;
+		}
+
+		/**
+		 * Get the estimated territory as a {@link Scorer.Score}, e.g. to be
+		 * shown by {@link de.cgawron.go.sgf.MarkupModel#setTerritory}.
+		 * Empty points and stones belonging to the opponent with at least
+		 * the given probability are counted as territory.
+		 *
+		 * @param goban
+		 *            - the position the estimate was made for
+		 * @param threshold
+		 *            - the probability required, e.g. 0.7
+		 */
+		public Scorer.Score getTerritory(Goban goban, float threshold)
+		{
+			BitBoard bits = BitBoard.forSize(size);
+			long[] blackTerritory = new long[bits.words];
+			long[] whiteTerritory = new long[bits.words];
+			int blackStones = 0;
+			int whiteStones = 0;
+			int deadBlack = 0;
+			int deadWhite = 0;
+			for (int y = 0; y < size; y++) {
+				for (int x = 0; x < size; x++) {
+					BoardType stone = goban.getStone(x, y);
+					boolean b = getProbability(x, y, BoardType.BLACK) >= threshold;
+					boolean w = getProbability(x, y, BoardType.WHITE) >= threshold;
+					if (stone == BoardType.BLACK && w) {
+						deadBlack++;
+						BitBoard.set(whiteTerritory, y * size + x);
+					} else if (stone == BoardType.WHITE && b) {
+						deadWhite++;
+						BitBoard.set(blackTerritory, y * size + x);
+					} else if (stone == BoardType.BLACK)
+						blackStones++;
+					else if (stone == BoardType.WHITE)
+						whiteStones++;
+					else if (b)
+						BitBoard.set(blackTerritory, y * size + x);
+					else if (w)
+						BitBoard.set(whiteTerritory, y * size + x);
+				}
+			}
+			return new Scorer.Score(size, blackTerritory, whiteTerritory,
+					blackStones, whiteStones, goban.getBlackCaptured()
+							+ deadWhite, goban.getWhiteCaptured() + deadBlack);
+		}
+	}
+
+	private final ExecutorService executor;
+	private final int workers;
+	private final Random seeds = new Random();
+
+	/**
+	 * Create an estimator.
+	 *
+	 * @param executor
+	 *            - runs the workers
+	 * @param workers
+	 *            - the number of workers, e.g. the number of processors
+	 * @throws IllegalArgumentException
+	 *             if <code>workers</code> is less than 1
+	 */
+	public OwnershipEstimator(ExecutorService executor, int workers)
+	{
+		if (workers < 1)
+			throw new IllegalArgumentException("workers must be at least 1: "
+					+ workers);
+		this.executor = executor;
+		this.workers = workers;
+	}
+
+	/**
+	 * Estimate the ownership of a position.
+	 *
+	 * @param goban
+	 *            - the position; it must not be changed during the estimation
+	 * @param playouts
+	 *            - the number of playouts
+	 * @param komi
+	 *            - the compensation for white
+	 * @return the estimate
+	 * @throws InterruptedException
+	 *             if the calling thread is interrupted while waiting for the
+	 *             workers
+	 */
+	public Estimate estimate(Goban goban, int playouts, float komi)
+			throws InterruptedException
+	{
+		ScratchBoard template = new ScratchBoard();
+		template.setup(goban);
+		byte toMove = goban.getToMove() == BoardType.WHITE ? ScratchBoard.WHITE
+				: ScratchBoard.BLACK;
+
+		List<Future<int[]>> results = new ArrayList<Future<int[]>>();
+		for (int i = 0; i < workers; i++) {
+			int n = playouts / workers + (i < playouts % workers ? 1 : 0);
+			results.add(executor.submit(new Worker(template, toMove, n, seeds
+					.nextLong())));
+		}
+
+		int size = goban.getBoardSize();
+		int n = size * size;
+		int[] black = new int[n];
+		int[] white = new int[n];
+		long scoreSum = 0;
+		try {
+			for (Future<int[]> result : results) {
+				int[] counts = result.get();
+				for (int i = 0; i < n; i++) {
+					black[i] += counts[i];
+					white[i] += counts[n + i];
+				}
+				scoreSum += counts[2 * n];
+			}
+		} catch (ExecutionException ex) {
+			throw new RuntimeException(ex.getCause());
+		}
+
+		Estimate estimate = new Estimate(size, playouts, black, white,
+				scoreSum, komi);
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("estimate: " + playouts + " playouts, score "
+					+ estimate.getScore());
+		return estimate;
+	}
+
+	/** Plays a share of the playouts. */
+	private static class Worker implements Callable<int[]>
+	{
+		private final ScratchBoard template;
+		private final byte toMove;
+		private final int playouts;
+		private final Random random;
+
+		private final ScratchBoard board = new ScratchBoard();
+		private int[] empty;
+		private int emptyCount;
+
+		Worker(ScratchBoard template, byte toMove, int playouts, long seed)
+		{
+			this.template = template;
+			this.toMove = toMove;
+			this.playouts = playouts;
+			this.random = new Random(seed);
+		}
+
+		/**
+		 * @return the number of playouts won by black for each point,
+		 *         followed by those won by white and the sum of the results
+		 */
+		public int[] call()
+		{
+			int n = template.getBoardSize() * template.getBoardSize();
+			int[] counts = new int[2 * n + 1];
+			empty = new int[n];
+			for (int k = 0; k < playouts; k++) {
+				board.setup(template);
+				playout(n);
+				counts[2 * n] += score(n, counts);
+			}
+			return counts;
+		}
+
+		private void playout(int n)
+		{
+			emptyCount = 0;
+			for (int p = 0; p < n; p++)
+				if (board.get(p) == ScratchBoard.EMPTY)
+					empty[emptyCount++] = p;
+
+			byte color = toMove;
+			int passes = 0;
+			int maxMoves = 3 * n;
+			for (int moves = 0; passes < 2 && moves < maxMoves; moves++) {
+				if (play(color))
+					passes = 0;
+				else
+					passes++;
+				color = (byte) (ScratchBoard.BLACK + ScratchBoard.WHITE - color);
+			}
+		}
+
+		/**
+		 * Play a random move which is legal and does not fill an eye.
+		 *
+		 * @return <code>false</code> if there is no such move
+		 */
+		private boolean play(byte color)
+		{
+			int candidates = emptyCount;
+			while (candidates > 0) {
+				int i = random.nextInt(candidates);
+				int p = empty[i];
+				if (!isEye(p, color) && board.play(p, color)) {
+					empty[i] = empty[--emptyCount];
+					int captured = board.capturedCount();
+					for (int j = 0; j < captured; j++)
+						empty[emptyCount++] = board.capturedStone(j);
+					board.clearUndo();
+					return true;
+				}
+				// move the rejected point out of the candidates
+				empty[i] = empty[candidates - 1];
+				empty[candidates - 1] = p;
+				candidates--;
+			}
+			return false;
+		}
+
+		/**
+		 * Check if <code>p</code> is an eye of <code>color</code>: all
+		 * neighbours are stones of this color and the opponent holds at most
+		 * one diagonal point, or none at the edge.
+		 */
+		private boolean isEye(int p, byte color)
+		{
+			Adjacency adj = board.getAdjacency();
+			for (int k = adj.first(p); k < adj.end(p); k++)
+				if (board.get(adj.neighbour(k)) != color)
+					return false;
+
+			int size = board.getBoardSize();
+			int x = p % size;
+			int y = p / size;
+			byte opponent = (byte) (ScratchBoard.BLACK + ScratchBoard.WHITE - color);
+			int bad = 0;
+			int edge = 0;
+			for (int dy = -1; dy <= 1; dy += 2) {
+				for (int dx = -1; dx <= 1; dx += 2) {
+					int u = x + dx;
+					int v = y + dy;
+					if (u < 0 || v < 0 || u >= size || v >= size)
+						edge = 1;
+					else if (board.get(v * size + u) == opponent)
+						bad++;
+				}
+			}
+			return bad + edge < 2;
+		}
+
+		/**
+		 * Count the owner of each point of the final position. An empty point
+		 * belongs to a color if all its neighbouring stones have that color.
+		 *
+		 * @return the area of black minus the area of white
+		 */
+		private int score(int n, int[] counts)
+		{
+			Adjacency adj = board.getAdjacency();
+			int result = 0;
+			for (int p = 0; p < n; p++) {
+				byte owner = board.get(p);
+				if (owner == ScratchBoard.EMPTY) {
+					for (int k = adj.first(p); k < adj.end(p); k++) {
+						byte stone = board.get(adj.neighbour(k));
+						if (stone == ScratchBoard.EMPTY)
+							continue;
+						if (owner == ScratchBoard.EMPTY)
+							owner = stone;
+						else if (stone != owner) {
+							owner = ScratchBoard.EMPTY;
+							break;
+						}
+					}
+				}
+				if (owner == ScratchBoard.BLACK) {
+					counts[p]++;
+					result++;
+				} else if (owner == ScratchBoard.WHITE) {
+					counts[n + p]++;
+					result--;
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Finds the occurrences of a {@link LocalPattern} on a {@link Goban}. A
+ * region of the board matches if it has the same invariant hash as the
+ * pattern; the hash is only calculated for regions with the same number of
+ * stones and edge points as the pattern.
+ * <p>
+ * {@link #findChanged} only looks at the regions touched by a
+ * {@link GobanDelta}, so following a game move by move costs time
+ * proportional to the number of changed points.
+ * <p>
+ * A PatternMatcher reuses its scratch space and must not be shared between
+ * threads.
+ *
+ * @author Christian Gawron
+ */
+public class PatternMatcher
+{
+	private final LocalPattern pattern;
+	private final LocalPattern.Keys keys;
+	private final int width;
+	private final byte[] cells;
+
+	/** The number of stones and edge points of the pattern. */
+	private final int stones;
+	private final int black;
+	private final int edge;
+
+	/**
+	 * Create a matcher for a pattern.
+	 *
+	 * @param pattern
+	 *            - the pattern to find
+	 */
+	public PatternMatcher(LocalPattern pattern)
+	{
+		this.pattern = pattern;
+		this.width = pattern.getWidth();
+		this.keys = new LocalPattern.Keys(width);
+		this.cells = new byte[width * width];
+
+		int b = 0, w = 0, e = 0;
+		for (int y = 0; y < width; y++)
+			for (int x = 0; x < width; x++) {
+				if (pattern.getStone(x, y) == null)
+					e++;
+				else if (pattern.getStone(x, y) == Goban.BoardType.BLACK)
+					b++;
+				else if (pattern.getStone(x, y) == Goban.BoardType.WHITE)
+					w++;
+			}
+		this.stones = b + w;
+		this.black = b;
+		this.edge = e;
+	}
+
+	public LocalPattern getPattern()
+	{
+		return pattern;
+	}
+
+	/**
+	 * Find all occurrences of the pattern.
+	 *
+	 * @param goban
+	 *            - the position
+	 * @return the centers of the matching regions or, for a corner pattern,
+	 *         the matching corner points
+	 */
+	public List<Point> find(Goban goban)
+	{
+		List<Point> matches = new ArrayList<Point>();
+		int size = goban.getBoardSize();
+		if (pattern.getType() == LocalPattern.Type.CORNER) {
+			for (int corner = 0; corner < 4; corner++)
+				if (matchesCorner(goban, corner))
+					matches.add(cornerPoint(corner, size));
+		} else {
+			for (int y = 0; y < size; y++)
+				for (int x = 0; x < size; x++)
+					if (matchesCenter(goban, x, y))
+						matches.add(Point.of(x, y));
+		}
+		return matches;
+	}
+
+	/**
+	 * Find the occurrences of the pattern in the regions changed by a move,
+	 * i.e. the regions containing a point changed in <code>delta</code>.
+	 *
+	 * @param goban
+	 *            - the position after the change
+	 * @param delta
+	 *            - the change
+	 * @return the matching regions as returned by {@link #find}
+	 */
+	public List<Point> findChanged(Goban goban, GobanDelta delta)
+	{
+		List<Point> matches = new ArrayList<Point>();
+		int size = goban.getBoardSize();
+		if (pattern.getType() == LocalPattern.Type.CORNER) {
+			int corners = 0;
+			for (int i = 0; i < delta.size(); i++) {
+				Point p = delta.getChangedPoint(i);
+				for (int corner = 0; corner < 4; corner++)
+					if (inCorner(p, corner, size))
+						corners |= 1 << corner;
+			}
+			for (int corner = 0; corner < 4; corner++)
+				if ((corners & (1 << corner)) != 0
+						&& matchesCorner(goban, corner))
+					matches.add(cornerPoint(corner, size));
+		} else {
+			BitSet centers = affectedCenters(delta, width, size);
+			for (int i = centers.nextSetBit(0); i >= 0; i = centers
+					.nextSetBit(i + 1)) {
+				if (matchesCenter(goban, i % size, i / size))
+					matches.add(Point.of(i % size, i / size));
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Get the centers of the regions of width <code>width</code> which
+	 * contain a point changed in <code>delta</code>.
+	 *
+	 * @return a set containing <code>y * size + x</code> for each center (x,
+	 *         y)
+	 */
+	public static BitSet affectedCenters(GobanDelta delta, int width, int size)
+	{
+		int r = width / 2;
+		BitSet centers = new BitSet(size * size);
+		for (int i = 0; i < delta.size(); i++) {
+			Point p = delta.getChangedPoint(i);
+			int x0 = Math.max(p.getX() - r, 0);
+			int x1 = Math.min(p.getX() + r, size - 1);
+			for (int y = Math.max(p.getY() - r, 0); y <= Math.min(p.getY()
+					+ r, size - 1); y++)
+				centers.set(y * size + x0, y * size + x1 + 1);
+		}
+		return centers;
+	}
+
+	private boolean matchesCenter(Goban goban, int x, int y)
+	{
+		LocalPattern.readCenter(goban, x, y, width, cells);
+		return matches(LocalPattern.Type.CENTER);
+	}
+
+	private boolean matchesCorner(Goban goban, int corner)
+	{
+		LocalPattern.readCorner(goban, corner, width, cells);
+		return matches(LocalPattern.Type.CORNER);
+	}
+
+	private boolean matches(LocalPattern.Type type)
+	{
+		int b = 0, w = 0, e = 0;
+		for (byte c : cells) {
+			if (c == LocalPattern.BLACK)
+				b++;
+			else if (c == LocalPattern.WHITE)
+				w++;
+			else if (c == LocalPattern.EDGE)
+				e++;
+		}
+		// the pattern may match with colors reversed
+		if (e != edge || b + w != stones || (b != black && w != black))
+			return false;
+		return LocalPattern.hash(keys, type, cells) == pattern.getHash();
+	}
+
+	private boolean inCorner(Point p, int corner, int size)
+	{
+		int x = (corner & 1) != 0 ? size - 1 - p.getX() : p.getX();
+		int y = (corner & 2) != 0 ? size - 1 - p.getY() : p.getY();
+		return x < width && y < width;
+	}
+
+	private static Point cornerPoint(int corner, int size)
+	{
+		return Point.of((corner & 1) != 0 ? size - 1 : 0,
+				(corner & 2) != 0 ? size - 1 : 0);
+	}
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import java.util.Vector;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Goban} whose board is shared with its copies. The board is stored
+ * row by row, two bits per point, and the rows are copied on write: a clone
+ * of a <code>PersistentGoban</code> initially shares all rows with the
+ * original, and playing a move only copies the rows which change. This makes
+ * it cheap to keep a position for every node of a large game tree.
+ *
+ * @author Christian Gawron
+ */
+public class PersistentGoban extends AbstractGoban
+{
+	private static Logger logger = Logger.getLogger(PersistentGoban.class
+			.getName());
+
+	private static final int EMPTY = 0;
+	private static final int BLACK = 1;
+	private static final int WHITE = 2;
+
+	private static final BoardType[] types = { BoardType.EMPTY,
+			BoardType.BLACK, BoardType.WHITE };
+
+	private int size;
+
+	/**
+	 * The rows of the board, two bits per point. Rows may be shared with other
+	 * instances and must only be modified if they are owned.
+	 */
+	private long[][] rows;
+
+	/** Bit y is set if this instance owns <code>rows[y]</code>. */
+	private long owned;
+
+	private Point lastMove;
+	private int whiteCaptured;
+	private int blackCaptured;
+
+	/** Scratch space used to find the strings; one per thread. */
+	private static final ThreadLocal<int[][]> scratch = new ThreadLocal<int[][]>() {
+		protected int[][] initialValue()
+		{
+			int n = Point.MAX_SIZE * Point.MAX_SIZE;
+			// stack, marks and the current mark
+			return new int[][] { new int[n], new int[n], new int[1] };
+		}
+	};
+
+	/** Create a PersistentGoban with default board size of 19x19. */
+	public PersistentGoban()
+	{
+		this(19);
+	}
+
+	/** Create a PersistentGoban with a given board size. */
+	public PersistentGoban(int size)
+	{
+		super();
+		setBoardSize(size);
+	}
+
+	/**
+	 * Create a PersistentGoban which copies the board of another Goban. If
+	 * <code>m</code> is a PersistentGoban the board is shared.
+	 *
+	 * @param m
+	 *            - the Goban to copy
+	 */
+	public PersistentGoban(Goban m)
+	{
+		super();
+		if (m != null)
+			copy(m);
+		else
+			setBoardSize(19);
+	}
+
+	private void init(int s)
+	{
+		size = s;
+		int words = (2 * s + 63) >>> 6;
+		rows = new long[s][words];
+		owned = s < 64 ? (1L << s) - 1 : -1L;
+		clearHash();
+	}
+
+	public void setBoardSize(int s)
+	{
+		if (size != s) {
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("setBoardSize: " + s);
+			init(s);
+		}
+	}
+
+	final public int getBoardSize()
+	{
+		return size;
+	}
+
+	public void copy(Goban m)
+	{
+		if (m instanceof PersistentGoban) {
+			PersistentGoban pm = (PersistentGoban) m;
+			size = pm.size;
+			rows = pm.rows.clone();
+			// the rows are shared now, so nobody may modify them in place
+			owned = 0;
+			pm.owned = 0;
+			copyHash(pm);
+		} else {
+			if (size != m.getBoardSize())
+				init(m.getBoardSize());
+			for (int i = 0; i < size; i++)
+				for (int j = 0; j < size; j++)
+					setStone(i, j, m.getStone(i, j));
+			setKoPoint(m.getKoPoint());
+			setToMove(m.getToMove());
+		}
+		lastMove = m.getLastMove();
+		whiteCaptured = m.getWhiteCaptured();
+		blackCaptured = m.getBlackCaptured();
+		fireModelChanged();
+	}
+
+	public void clear()
+	{
+		init(size);
+		lastMove = null;
+		whiteCaptured = 0;
+		blackCaptured = 0;
+		fireModelChanged();
+	}
+
+	/**
+	 * Get the number of rows this instance does not share with other
+	 * instances.
+	 *
+	 * @return the number of owned rows
+	 */
+	public int getOwnedRows()
+	{
+		return Long.bitCount(owned);
+	}
+
+	public int getBlackCaptured()
+	{
+		return blackCaptured;
+	}
+
+	public int getWhiteCaptured()
+	{
+		return whiteCaptured;
+	}
+
+	public Point getLastMove()
+	{
+		return lastMove;
+	}
+
+	protected void setLastMove(Point p)
+	{
+		lastMove = p;
+	}
+
+	protected void setBlackCaptured(int n)
+	{
+		blackCaptured = n;
+	}
+
+	protected void setWhiteCaptured(int n)
+	{
+		whiteCaptured = n;
+	}
+
+	private int get(int x, int y)
+	{
+		return (int) (rows[y][x >>> 5] >>> ((x & 31) << 1)) & 3;
+	}
+
+	private void set(int x, int y, int c)
+	{
+		if ((owned & (1L << y)) == 0) {
+			rows[y] = rows[y].clone();
+			owned |= 1L << y;
+		}
+		int shift = (x & 31) << 1;
+		long[] row = rows[y];
+		row[x >>> 5] = (row[x >>> 5] & ~(3L << shift)) | ((long) c << shift);
+	}
+
+	public BoardType getStone(Point p)
+	{
+		return types[get(p.getX(), p.getY())];
+	}
+
+	public final BoardType getStone(int x, int y)
+	{
+		return types[get(x, y)];
+	}
+
+	protected void setStone(int x, int y, BoardType c)
+	{
+		int old = get(x, y);
+		int v = c.ordinal();
+		if (old != v) {
+			updateHash(size, x, y, types[old], c);
+			set(x, y, v);
+		}
+	}
+
+	public void putStone(int x, int y, BoardType color)
+	{
+		setStone(x, y, color);
+		setKoPoint(null);
+		fireStoneAdded(x, y, color);
+	}
+
+	public void putStone(Point p, BoardType color)
+	{
+		putStone(p.getX(), p.getY(), color);
+	}
+
+	public void move(Point p, BoardType color)
+	{
+		move(p.getX(), p.getY(), color);
+	}
+
+	public void move(Point p, BoardType color, int moveNo)
+	{
+		move(p.getX(), p.getY(), color);
+	}
+
+	public void move(int x, int y, BoardType color)
+	{
+		if (x < 0 || y < 0 || x >= size || y >= size)
+			return;
+		if (get(x, y) != EMPTY)
+			return;
+
+		setStone(x, y, color);
+		lastMove = Point.of(x, y);
+		setToMove(color.opposite());
+
+		Adjacency adj = Adjacency.forSize(size);
+		int[][] s = scratch.get();
+		int enemy = color.opposite().ordinal();
+		int p = y * size + x;
+		int captured = 0;
+		int capturedAt = -1;
+		Vector<Point> removed = null;
+
+		for (int k = adj.first(p), e = adj.end(p); k < e; k++) {
+			int q = adj.neighbours[k];
+			if (get(adj.xOf[q], adj.yOf[q]) != enemy)
+				continue;
+			int n = findString(adj, q, s);
+			if (n > 0) {
+				if (removed == null)
+					removed = new Vector<Point>();
+				capturedAt = q;
+				captured += removeString(adj, s[0], n, removed);
+			}
+		}
+
+		int n = findString(adj, p, s);
+		// A single stone capturing a single stone and having exactly one
+		// liberty left (the point of the captured stone) is a ko
+		if (captured == 1 && isSingleStone(adj, p)
+				&& countLiberties(adj, p) == 1)
+			setKoPoint(Point.of(adj.xOf[capturedAt], adj.yOf[capturedAt]));
+		else
+			setKoPoint(null);
+
+		if (n > 0) {
+			if (removed == null)
+				removed = new Vector<Point>();
+			removeString(adj, s[0], n, removed);
+		}
+
+		if (removed != null)
+			fireStonesRemoved(removed);
+		fireStoneAdded(x, y, color);
+	}
+
+	/**
+	 * Find the string at <code>start</code>. If the string has no liberties its
+	 * stones are left in <code>s[0]</code>.
+	 *
+	 * @return the number of stones if the string has no liberties, otherwise
+	 *         the negative number of stones found before a liberty was seen
+	 */
+	private int findString(Adjacency adj, int start, int[][] s)
+	{
+		int[] stack = s[0];
+		int[] mark = s[1];
+		int m = ++s[2][0];
+		if (m == 0) {
+			java.util.Arrays.fill(mark, 0);
+			m = s[2][0] = 1;
+		}
+
+		int c = get(adj.xOf[start], adj.yOf[start]);
+		int n = 0;
+		stack[n++] = start;
+		mark[start] = m;
+		for (int i = 0; i < n; i++) {
+			int stone = stack[i];
+			for (int k = adj.first(stone), e = adj.end(stone); k < e; k++) {
+				int q = adj.neighbours[k];
+				int v = get(adj.xOf[q], adj.yOf[q]);
+				if (v == EMPTY)
+					return -n;
+				if (v == c && mark[q] != m) {
+					mark[q] = m;
+					stack[n++] = q;
+				}
+			}
+		}
+		return n;
+	}
+
+	private boolean isSingleStone(Adjacency adj, int p)
+	{
+		int c = get(adj.xOf[p], adj.yOf[p]);
+		for (int k = adj.first(p), e = adj.end(p); k < e; k++) {
+			int q = adj.neighbours[k];
+			if (get(adj.xOf[q], adj.yOf[q]) == c)
+				return false;
+		}
+		return true;
+	}
+
+	private int countLiberties(Adjacency adj, int p)
+	{
+		int n = 0;
+		for (int k = adj.first(p), e = adj.end(p); k < e; k++) {
+			int q = adj.neighbours[k];
+			if (get(adj.xOf[q], adj.yOf[q]) == EMPTY)
+				n++;
+		}
+		return n;
+	}
+
+	private int removeString(Adjacency adj, int[] stones, int n,
+			Vector<Point> removed)
+	{
+		BoardType c = types[get(adj.xOf[stones[0]], adj.yOf[stones[0]])];
+		for (int i = 0; i < n; i++) {
+			int x = adj.xOf[stones[i]];
+			int y = adj.yOf[stones[i]];
+			setStone(x, y, BoardType.EMPTY);
+			removed.add(Point.of(x, y));
+		}
+
+		if (c == BoardType.BLACK)
+			whiteCaptured += n;
+		else
+			blackCaptured += n;
+		return n;
+	}
+
+	public boolean equals(Object o)
+	{
+		if (o == this)
+			return true;
+		else if (o instanceof PersistentGoban) {
+			PersistentGoban goban = (PersistentGoban) o;
+			if (size != goban.size)
+				return false;
+			for (int y = 0; y < size; y++)
+				if (rows[y] != goban.rows[y]
+						&& !java.util.Arrays.equals(rows[y], goban.rows[y]))
+					return false;
+			return true;
+		} else if (o instanceof Goban) {
+			Goban goban = (Goban) o;
+			if (goban.getBoardSize() != size)
+				return false;
+			for (int i = 0; i < size; i++)
+				for (int j = 0; j < size; j++)
+					if (getStone(i, j) != goban.getStone(i, j))
+						return false;
+			return true;
+		}
+		return false;
+	}
+
+	public Goban clone() throws CloneNotSupportedException
+	{
+		return new PersistentGoban(this);
+	}
+
+	/**
+	 * Estimate the memory used by this goban. Rows shared with other
+	 * instances are not counted.
+	 */
+	public int estimateSize()
+	{
+		return super.estimateSize() + 16 + 4 * size + getOwnedRows()
+				* (16 + 8 * rows[0].length);
+	}
+
+	public Goban newInstance()
+	{
+		return new PersistentGoban(size);
+	}
+
+	public String toString()
+	{
+		StringBuffer s = new StringBuffer(512);
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				BoardType p = getStone(i, j);
+				if (p == BoardType.WHITE)
+					s.append('O');
+				else if (p == BoardType.BLACK)
+					s.append('X');
+				else
+					s.append('.');
+			}
+			s.append('\n');
+		}
+		return s.toString();
+	}
+}
@@ -14,11 +14,27 @@ package de.cgawron.go;
 
 /**
  * A point on a Goban.
+ * <p>
+ * Points are immutable (unless they are {@link MutablePoint}s), so the points
+ * of all legal SGF board sizes are shared: use {@link #of(int, int)} instead
+ * of the constructors. Internally points may also be represented by their
+ * packed form (see {@link #pack(int, int)}).
  * 
  * @author Christian Gawron
  */
 public class Point implements Comparable<Point>
 {
+	/** The largest board size allowed by SGF. */
+	public static final int MAX_SIZE = 52;
+
+	private static final Point[] points = new Point[MAX_SIZE * MAX_SIZE];
+
+	static {
+		for (int x = 0; x < MAX_SIZE; x++)
+			for (int y = 0; y < MAX_SIZE; y++)
+				points[x * MAX_SIZE + y] = new Point(x, y);
+	}
+
 	/** The x coordinate of the point. */
 	protected short x;
 
@@ -43,8 +59,115 @@ public class Point implements Comparable<Point>
 	 */
 	public Point(String s)
 	{
-		x = (short) (s.charAt(0) - 'a');
-		y = (short) (s.charAt(1) - 'a');
+		x = (short) coordinate(s.charAt(0));
+		y = (short) coordinate(s.charAt(1));
+	}
+
+	/**
+	 * Get the (shared) point with the given coordinates. Points outside of the
+	 * range of SGF coordinates are created on demand.
+	 * 
+	 * @param x
+	 *            - the x coordinate
+	 * @param y
+	 *            - the y coordinate
+	 * @return the point (x, y)
+	 */
+	public static Point of(int x, int y)
+	{
+		if (x >= 0 && y >= 0 && x < MAX_SIZE && y < MAX_SIZE)
+			return points[x * MAX_SIZE + y];
+		else
+			return new Point(x, y);
+	}
+
+	/**
+	 * Get the (shared) point for a textual representation in SGF notation.
+	 * 
+	 * @param s
+	 *            - the String representing the Point.
+	 * @return the point
+	 */
+	public static Point of(String s)
+	{
+		return of(coordinate(s.charAt(0)), coordinate(s.charAt(1)));
+	}
+
+	/**
+	 * Get the (shared) point with the coordinates of <code>p</code>.
+	 * 
+	 * @param p
+	 *            - a point, possibly a {@link MutablePoint}
+	 * @return the point
+	 */
+	public static Point of(Point p)
+	{
+		return of(p.x, p.y);
+	}
+
+	/**
+	 * Pack the coordinates of a point into a single number. The packed form
+	 * fits into a <code>short</code> and preserves the order of
+	 * {@link #compareTo}.
+	 * 
+	 * @param x
+	 *            - the x coordinate, 0 &lt;= x &lt; {@link #MAX_SIZE}
+	 * @param y
+	 *            - the y coordinate, 0 &lt;= y &lt; {@link #MAX_SIZE}
+	 * @return the packed coordinates
+	 */
+	public static int pack(int x, int y)
+	{
+		if (x < 0 || y < 0 || x >= MAX_SIZE || y >= MAX_SIZE)
+			throw new IllegalArgumentException("point out of range: [" + x
+					+ ", " + y + "]");
+		return x * MAX_SIZE + y;
+	}
+
+	/**
+	 * Get the packed form of this point.
+	 * 
+	 * @see #pack(int, int)
+	 */
+	public final int pack()
+	{
+		return pack(x, y);
+	}
+
+	/**
+	 * Get the point from its packed form.
+	 * 
+	 * @param packed
+	 *            - the packed coordinates
+	 * @return the (shared) point
+	 * @see #pack(int, int)
+	 */
+	public static Point unpack(int packed)
+	{
+		return points[packed];
+	}
+
+	/**
+	 * Convert a SGF coordinate character to a coordinate. SGF uses 'a' to 'z'
+	 * for 0 to 25 and 'A' to 'Z' for 26 to 51.
+	 */
+	static int coordinate(char c)
+	{
+		if (c >= 'A' && c <= 'Z')
+			return c - 'A' + 26;
+		else
+			return c - 'a';
+	}
+
+	/**
+	 * Convert a coordinate to the corresponding SGF character.
+	 */
+	static char sgfChar(int c)
+	{
+		if (c >= 26 && c < MAX_SIZE)
+			return (char) ('A' + c - 26);
+		else
+			return (char) ('a' + c);
 	}
 
 	/**
@@ -148,7 +271,7 @@ public class Point implements Comparable<Point>
 	@Override
 	public int hashCode()
 	{
-		return 19 * x + y;
+		return (x << 16) | (y & 0xffff);
 	}
 
 	/*
@@ -166,7 +289,7 @@ public class Point implements Comparable<Point>
 	public java.lang.String sgfString()
 	{
 		StringBuffer sgf = new StringBuffer(2);
-		sgf.append((char) ('a' + x)).append((char) ('a' + y));
+		sgf.append(sgfChar(x)).append(sgfChar(y));
 		return sgf.toString();
 	}
 
@@ -216,11 +339,13 @@ public class Point implements Comparable<Point>
 	}
 
 	/**
-	 * An Iterator traversing all points on a goban.
+	 * An Iterator traversing all points on a goban. The iterator returns the
+	 * shared points, so they may be kept by the caller.
 	 */
 	public static class BoardIterator implements java.util.Iterator<Point>
 	{
-		private final Point p = new Point();
+		private int x;
+		private int y;
 		private final int boardSize;
 
 		/**
@@ -232,25 +357,25 @@ public class Point implements Comparable<Point>
 		public BoardIterator(int boardSize)
 		{
 			this.boardSize = boardSize;
-			p.x = -1;
-			p.y = 0;
+			x = -1;
+			y = 0;
 		}
 
 		public boolean hasNext()
 		{
-			return (p.y < boardSize - 1)
-					|| (p.y == boardSize - 1 && p.x < boardSize - 1);
+			return (y < boardSize - 1)
+					|| (y == boardSize - 1 && x < boardSize - 1);
 		}
 
 		public Point next()
 		{
-			p.x++;
-			if (p.x == boardSize) {
-				p.x = 0;
-				p.y++;
+			x++;
+			if (x == boardSize) {
+				x = 0;
+				y++;
 			}
 
-			return p;
+			return of(x, y);
 		}
 
 		public void remove()
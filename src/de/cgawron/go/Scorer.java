@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import de.cgawron.go.Goban.BoardType;
+
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Scores a position. The dead stones are removed from the board; an empty
+ * region is the territory of a player if it borders only on stones of this
+ * player. The regions reachable from the stones of each player are found by
+ * a flood fill over bitsets, so scoring costs two fills regardless of the
+ * number of regions and can be done for every move of a game.
+ * <p>
+ * A Scorer reuses its scratch space and must not be shared between threads.
+ *
+ * @author Christian Gawron
+ */
+public class Scorer
+{
+	private static Logger logger = Logger.getLogger(Scorer.class.getName());
+
+	/** The scoring rules. */
+	public enum Rules
+	{
+		/** Stones and territory count (chinese rules). */
+		AREA,
+		/** Territory and prisoners count (japanese rules). */
+		TERRITORY
+	}
+
+	/** The score of a position. */
+	public static class Score
+	{
+		private final int size;
+		private final long[] blackTerritory;
+		private final long[] whiteTerritory;
+		private final int blackStones;
+		private final int whiteStones;
+		private final int blackPrisoners;
+		private final int whitePrisoners;
+
+		Score(int size, long[] blackTerritory, long[] whiteTerritory,
+				int blackStones, int whiteStones, int blackPrisoners,
+				int whitePrisoners)
+		{
+			this.size = size;
+			this.blackTerritory = blackTerritory;
+			this.whiteTerritory = whiteTerritory;
+			this.blackStones = blackStones;
+			this.whiteStones = whiteStones;
+			this.blackPrisoners = blackPrisoners;
+			this.whitePrisoners = whitePrisoners;
+		}
+
+		public int getBoardSize()
+		{
+			return size;
+		}
+
+		/**
+		 * Get the owner of the territory at (x, y). Points of dead stones
+		 * belong to the territory of the opponent.
+		 *
+		 * @return the owner or <code>EMPTY</code> if the point is not
+		 *         territory
+		 */
+		public BoardType getOwner(int x, int y)
+		{
+			int i = y * size + x;
+			if (BitBoard.get(blackTerritory, i))
+				return BoardType.BLACK;
+			else if (BitBoard.get(whiteTerritory, i))
+				return BoardType.WHITE;
+			else
+				return BoardType.EMPTY;
+		}
+
+		/** Get the number of territory points of a player. */
+		public int getTerritory(BoardType color)
+		{
+			return BitBoard.count(color == BoardType.BLACK ? blackTerritory
+					: whiteTerritory);
+		}
+
+		/** Get the number of living stones of a player. */
+		public int getStones(BoardType color)
+		{
+			return color == BoardType.BLACK ? blackStones : whiteStones;
+		}
+
+		/**
+		 * Get the number of prisoners taken by a player, i.e. the captured and
+		 * the dead stones of the opponent.
+		 */
+		public int getPrisoners(BoardType color)
+		{
+			return color == BoardType.BLACK ? blackPrisoners : whitePrisoners;
+		}
+
+		/** Get the area (stones and territory) of a player. */
+		public int getArea(BoardType color)
+		{
+			return getStones(color) + getTerritory(color);
+		}
+
+		/**
+		 * Get the result of the game.
+		 *
+		 * @param rules
+		 *            - the scoring rules
+		 * @param komi
+		 *            - the compensation for white
+		 * @return the score of black minus the score of white
+		 */
+		public float getResult(Rules rules, float komi)
+		{
+			int black;
+			int white;
+			if (rules == Rules.AREA) {
+				black = getArea(BoardType.BLACK);
+				white = getArea(BoardType.WHITE);
+			} else {
+				black = getTerritory(BoardType.BLACK) + blackPrisoners;
+				white = getTerritory(BoardType.WHITE) + whitePrisoners;
+			}
+			return black - white - komi;
+		}
+
+		public String toString()
+		{
+			return "Score[black: " + blackStones + " stones, "
+					+ getTerritory(BoardType.BLACK) + " territory, "
+					+ blackPrisoners + " prisoners; white: " + whiteStones
+					+ " stones, " + getTerritory(BoardType.WHITE)
+					+ " territory, " + whitePrisoners + " prisoners]";
+		}
+	}
+
+	private BitBoard bits;
+	private long[] black;
+	private long[] white;
+	private long[] empty;
+	private long[] mask;
+	private long[] reach;
+	private long[] tmp;
+
+	/**
+	 * Score a position.
+	 *
+	 * @param goban
+	 *            - the position
+	 * @param dead
+	 *            - the dead stones or <code>null</code> if there are none;
+	 *            empty points are ignored
+	 * @return the score
+	 */
+	public Score score(Goban goban, Collection<Point> dead)
+	{
+		int size = goban.getBoardSize();
+		init(size);
+		int words = bits.words;
+
+		for (int i = 0; i < words; i++) {
+			black[i] = 0;
+			white[i] = 0;
+		}
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				BoardType stone = goban.getStone(x, y);
+				if (stone == BoardType.BLACK)
+					BitBoard.set(black, y * size + x);
+				else if (stone == BoardType.WHITE)
+					BitBoard.set(white, y * size + x);
+			}
+		}
+
+		int deadBlack = 0;
+		int deadWhite = 0;
+		if (dead != null) {
+			for (Point p : dead) {
+				int i = p.getY() * size + p.getX();
+				if (BitBoard.get(black, i)) {
+					BitBoard.clear(black, i);
+					deadBlack++;
+				} else if (BitBoard.get(white, i)) {
+					BitBoard.clear(white, i);
+					deadWhite++;
+				}
+			}
+		}
+
+		for (int i = 0; i < words; i++)
+			empty[i] = bits.board[i] & ~black[i] & ~white[i];
+
+		long[] blackTerritory = reachable(black);
+		long[] whiteTerritory = reachable(white);
+		for (int i = 0; i < words; i++) {
+			long b = blackTerritory[i];
+			long w = whiteTerritory[i];
+			blackTerritory[i] = b & ~w;
+			whiteTerritory[i] = w & ~b;
+		}
+
+		Score score = new Score(size, blackTerritory, whiteTerritory, BitBoard
+				.count(black), BitBoard.count(white), goban.getBlackCaptured()
+				+ deadWhite, goban.getWhiteCaptured() + deadBlack);
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("score: " + score);
+		return score;
+	}
+
+	/**
+	 * Get the empty points reachable from <code>stones</code> through empty
+	 * points.
+	 */
+	private long[] reachable(long[] stones)
+	{
+		int words = bits.words;
+		for (int i = 0; i < words; i++)
+			mask[i] = stones[i] | empty[i];
+		bits.fill(stones, mask, reach, tmp);
+		long[] result = new long[words];
+		for (int i = 0; i < words; i++)
+			result[i] = reach[i] & empty[i];
+		return result;
+	}
+
+	private void init(int size)
+	{
+		if (bits != null && bits.size == size)
+			return;
+		bits = BitBoard.forSize(size);
+		int words = bits.words;
+		black = new long[words];
+		white = new long[words];
+		empty = new long[words];
+		mask = new long[words];
+		reach = new long[words];
+		tmp = new long[words];
+	}
+}
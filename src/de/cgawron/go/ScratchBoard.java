@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import de.cgawron.go.Goban.BoardType;
+
+import java.util.Arrays;
+
+/**
+ * A minimal board for reading ahead. Moves are played with capture and
+ * suicide rules (ko is ignored) and taken back with {@link #undo}. All
+ * scratch space is allocated when the board size changes, so playing,
+ * undoing and counting liberties allocate nothing.
+ * <p>
+ * Points are addressed by their index <code>y * size + x</code>.
+ *
+ * @author Christian Gawron
+ */
+final class ScratchBoard
+{
+	static final byte EMPTY = 0;
+	static final byte BLACK = 1;
+	static final byte WHITE = 2;
+
+	private int size;
+	private Adjacency adj;
+	private byte[] board;
+
+	/**
+	 * The undo stack. For each move the captured stones are pushed, followed
+	 * by their number and the point of the move.
+	 */
+	private int[] undo;
+	private int undoTop;
+
+	/** Marks for flood fills; a point is marked if it equals generation. */
+	private int[] mark;
+	private int generation;
+	private int[] stack;
+
+	/**
+	 * Copy a position. The undo stack is cleared.
+	 *
+	 * @param goban
+	 *            - the position
+	 */
+	void setup(Goban goban)
+	{
+		int s = goban.getBoardSize();
+		if (s != size || board == null)
+			init(s);
+		for (int y = 0; y < size; y++)
+			for (int x = 0; x < size; x++) {
+				BoardType stone = goban.getStone(x, y);
+				board[y * size + x] = stone == BoardType.BLACK ? BLACK
+						: (stone == BoardType.WHITE ? WHITE : EMPTY);
+			}
+		undoTop = 0;
+	}
+
+	/**
+	 * Copy the position of another scratch board. The undo stack is cleared.
+	 */
+	void setup(ScratchBoard template)
+	{
+		if (template.size != size || board == null)
+			init(template.size);
+		System.arraycopy(template.board, 0, board, 0, board.length);
+		undoTop = 0;
+	}
+
+	private void init(int s)
+	{
+		size = s;
+		adj = Adjacency.forSize(s);
+		int n = s * s;
+		board = new byte[n];
+		undo = new int[4 * n];
+		mark = new int[n];
+		stack = new int[n];
+		generation = 0;
+	}
+
+	int getBoardSize()
+	{
+		return size;
+	}
+
+	Adjacency getAdjacency()
+	{
+		return adj;
+	}
+
+	byte get(int p)
+	{
+		return board[p];
+	}
+
+	/**
+	 * Play a move.
+	 *
+	 * @param p
+	 *            - the point
+	 * @param color
+	 *            - {@link #BLACK} or {@link #WHITE}
+	 * @return <code>false</code> if the point is occupied or the move is
+	 *         suicide; the board is unchanged then
+	 */
+	boolean play(int p, byte color)
+	{
+		if (board[p] != EMPTY)
+			return false;
+		byte opponent = (byte) (BLACK + WHITE - color);
+		board[p] = color;
+		int start = undoTop;
+		for (int k = adj.first(p); k < adj.end(p); k++) {
+			int q = adj.neighbour(k);
+			if (board[q] == opponent && liberties(q, 1, null) == 0)
+				capture(q);
+		}
+		int captured = undoTop - start;
+		if (captured == 0 && liberties(p, 1, null) == 0) {
+			board[p] = EMPTY;
+			return false;
+		}
+		push(captured);
+		push(p);
+		return true;
+	}
+
+	/** Take back the last move. */
+	void undo()
+	{
+		int p = undo[--undoTop];
+		int captured = undo[--undoTop];
+		byte opponent = (byte) (BLACK + WHITE - board[p]);
+		board[p] = EMPTY;
+		while (captured-- > 0)
+			board[undo[--undoTop]] = opponent;
+	}
+
+	/** Get the number of stones captured by the last move. */
+	int capturedCount()
+	{
+		return undo[undoTop - 2];
+	}
+
+	/** Get a stone captured by the last move. */
+	int capturedStone(int i)
+	{
+		return undo[undoTop - 3 - i];
+	}
+
+	/**
+	 * Forget the moves played so far; they can't be taken back any more.
+	 */
+	void clearUndo()
+	{
+		undoTop = 0;
+	}
+
+	/**
+	 * Count the liberties of the string at <code>p</code>.
+	 *
+	 * @param p
+	 *            - a stone of the string
+	 * @param max
+	 *            - stop counting at this number
+	 * @param libs
+	 *            - receives the first <code>max</code> liberties or
+	 *            <code>null</code>
+	 * @return the number of liberties, at most <code>max</code>
+	 */
+	int liberties(int p, int max, int[] libs)
+	{
+		byte color = board[p];
+		int gen = nextGeneration();
+		int count = 0;
+		int top = 0;
+		stack[top++] = p;
+		mark[p] = gen;
+		while (top > 0) {
+			int q = stack[--top];
+			for (int k = adj.first(q); k < adj.end(q); k++) {
+				int r = adj.neighbour(k);
+				if (mark[r] == gen)
+					continue;
+				if (board[r] == EMPTY) {
+					mark[r] = gen;
+					if (libs != null)
+						libs[count] = r;
+					if (++count >= max)
+						return count;
+				} else if (board[r] == color) {
+					mark[r] = gen;
+					stack[top++] = r;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Get the stones of the string at <code>p</code>.
+	 *
+	 * @param stones
+	 *            - receives the stones; must have room for the whole board
+	 * @return the number of stones
+	 */
+	int stones(int p, int[] stones)
+	{
+		byte color = board[p];
+		int gen = nextGeneration();
+		int n = 0;
+		stones[n++] = p;
+		mark[p] = gen;
+		for (int i = 0; i < n; i++) {
+			int q = stones[i];
+			for (int k = adj.first(q); k < adj.end(q); k++) {
+				int r = adj.neighbour(k);
+				if (mark[r] != gen && board[r] == color) {
+					mark[r] = gen;
+					stones[n++] = r;
+				}
+			}
+		}
+		return n;
+	}
+
+	private void capture(int p)
+	{
+		byte color = board[p];
+		int top = 0;
+		stack[top++] = p;
+		board[p] = EMPTY;
+		while (top > 0) {
+			int q = stack[--top];
+			push(q);
+			for (int k = adj.first(q); k < adj.end(q); k++) {
+				int r = adj.neighbour(k);
+				if (board[r] == color) {
+					board[r] = EMPTY;
+					stack[top++] = r;
+				}
+			}
+		}
+	}
+
+	private void push(int value)
+	{
+		if (undoTop == undo.length) {
+			int[] u = new int[2 * undo.length];
+			System.arraycopy(undo, 0, u, 0, undoTop);
+			undo = u;
+		}
+		undo[undoTop++] = value;
+	}
+
+	private int nextGeneration()
+	{
+		if (++generation == Integer.MAX_VALUE) {
+			Arrays.fill(mark, 0);
+			generation = 1;
+		}
+		return generation;
+	}
+}
@@ -16,9 +16,11 @@ import de.cgawron.go.Goban.BoardType;
 import de.cgawron.go.Point;
 import de.cgawron.go.MutablePoint;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.Collection;
-import java.util.EventListener;
+import java.nio.ByteBuffer;
 import java.util.Vector;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -26,21 +28,47 @@ import java.util.logging.Logger;
 /**
  * A simple implementation of a GobanModel, using a two-dimensional array to
  * represent the board. Creation date: (03/23/00 21:36:30)
+ * <p>
+ * Strings (chains) of stones are tracked incrementally: each stone knows the
+ * string it belongs to, the stones of a string are kept in a circular list
+ * and each string maintains its number of pseudo liberties (the number of
+ * adjacent stone/empty point pairs). A string is captured exactly when this
+ * number drops to zero, so capture detection needs no flood fill.
+ * <p>
+ * The board is serialized as a {@link GobanCodec} snapshot; the string
+ * structure is rebuilt when it is read.
  */
 public class SimpleGoban extends AbstractGoban implements Serializable
 {
 	protected int size = 0;
-	protected BoardType[][] boardRep;
-	private int[][] tmpBoard;
-	private int[] _hash;
+	protected transient BoardType[][] boardRep;
 
-	private int visited;
-	int numStones = 0;
-	private Point lastMove;
-	private int whiteCaptured;
-	private int blackCaptured;
+	/**
+	 * The string each point belongs to, identified by the index of one of its
+	 * stones, or -1 for empty points. Points are indexed by
+	 * <code>y * size + x</code>.
+	 */
+	private transient int[] stringOf;
+
+	/** The next stone of the same string (a circular list). */
+	private transient int[] nextStone;
+
+	/** The number of stones of each string, indexed by the string. */
+	private transient int[] stringSize;
+
+	/** The number of pseudo liberties of each string, indexed by the string. */
+	private transient int[] liberties;
+
+	/** The neighbourhood tables for the current board size. */
+	private transient Adjacency adj;
 
-	protected Collection<GobanListener> listeners = new java.util.ArrayList<GobanListener>();
+	/** Marks used by {@link #countLiberties}. */
+	private transient int[] mark;
+	private transient int visited;
+	transient int numStones = 0;
+	private transient Point lastMove;
+	private transient int whiteCaptured;
+	private transient int blackCaptured;
 
 	private static Logger logger = Logger
 			.getLogger(SimpleGoban.class.getName());
@@ -75,12 +103,6 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 			setBoardSize((int) 19);
 	}
 
-	/** addGobanListener method comment. */
-	public void addGobanListener(GobanListener l)
-	{
-		listeners.add(l);
-	}
-
 	/**
 	 * Insert the method's description here. Creation date: (04/09/00 18:33:15)
 	 * 
@@ -98,7 +120,12 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 			for (i = 0; i < size; i++)
 				System.arraycopy(sm.boardRep[i], 0, boardRep[i], 0, size);
 
-			System.arraycopy(sm._hash, 0, _hash, 0, 16);
+			int n = size * size;
+			System.arraycopy(sm.stringOf, 0, stringOf, 0, n);
+			System.arraycopy(sm.nextStone, 0, nextStone, 0, n);
+			System.arraycopy(sm.stringSize, 0, stringSize, 0, n);
+			System.arraycopy(sm.liberties, 0, liberties, 0, n);
+			copyHash(sm);
 			whiteCaptured = sm.whiteCaptured;
 			blackCaptured = sm.blackCaptured;
 			numStones = sm.numStones;
@@ -110,6 +137,8 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 
 			whiteCaptured = m.getWhiteCaptured();
 			blackCaptured = m.getBlackCaptured();
+			setKoPoint(m.getKoPoint());
+			setToMove(m.getToMove());
 		}
 		fireModelChanged();
 	}
@@ -120,59 +149,47 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 		int j;
 		for (i = 0; i < size; i++)
 			for (j = 0; j < size; j++)
-				setStone(i, j, BoardType.EMPTY);
+				setPoint(i, j, BoardType.EMPTY);
+		java.util.Arrays.fill(stringOf, -1);
 		numStones = 0;
+		clearHash();
+		lastMove = null;
+		whiteCaptured = 0;
+		blackCaptured = 0;
 		fireModelChanged();
 	}
 
 	/**
-	 * Insert the method's description here. Creation date: (03/26/00 17:12:54)
+	 * Count the liberties of the string at <code>p</code>.
 	 * 
-	 * @return int
+	 * @return the number of (distinct) liberties of the string
 	 * @param p
-	 *            goban.Point
+	 *            a point of the string
 	 */
 	public int countLiberties(Point p)
 	{
-		tmpBoard[p.getX()][p.getY()] = visited;
-		int liberties = (int) 0;
-
-		NeighborhoodEnumeration ne = new NeighborhoodEnumeration(this, p);
-		while (ne.hasMoreElements()) {
-			Point q = (Point) ne.nextElement();
-			if (tmpBoard[q.getX()][q.getY()] != visited) {
-				tmpBoard[q.getX()][q.getY()] = visited;
-				if (getStone(q) == BoardType.EMPTY)
-					liberties++;
-				else if (getStone(q) == getStone(p))
-					liberties += countLiberties(q);
-			}
-		}
-		return liberties;
-	}
+		int start = p.getY() * size + p.getX();
+		if (stringOf[start] < 0)
+			return 0;
 
-	/**
-	 * Insert the method's description here. Creation date: (03/25/00 16:07:59)
-	 * 
-	 * @param x
-	 *            int
-	 * @param y
-	 *            int
-	 * @param c
-	 *            goban.BoardType
-	 */
-	protected void fireStonesRemoved(Vector<Point> removed)
-	{
-		// Guaranteed to return a non-null array
-		GobanEvent e = null;
-		// Process the listeners last to first, notifying
-		// those that are interested in this event
-		for (GobanListener listener : listeners) {
-			// Lazily create the event:
-			if (e == null)
-				e = new GobanEvent(this, removed);
-			listener.stonesRemoved(e);
+		if (++visited == 0) {
+			java.util.Arrays.fill(mark, 0);
+			visited = 1;
 		}
+
+		int count = 0;
+		int stone = start;
+		do {
+			for (int k = adj.first(stone), e = adj.end(stone); k < e; k++) {
+				int q = adj.neighbours[k];
+				if (stringOf[q] < 0 && mark[q] != visited) {
+					mark[q] = visited;
+					count++;
+				}
+			}
+			stone = nextStone[stone];
+		} while (stone != start);
+		return count;
 	}
 
 	/**
@@ -213,36 +230,140 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 	}
 
 	/**
-	 * Insert the method's description here. Creation date: (03/26/00 17:13:44)
+	 * Remove the string at <code>p</code> from the board and count the removed
+	 * stones as captured.
 	 * 
-	 * @return int
+	 * @return the number of removed stones
 	 */
 	public int removeChain(Point p, Vector<Point> removed)
 	{
-		removed.addElement(p);
-		BoardType c = getStone(p);
-		setStone(p, BoardType.EMPTY);
-		int r = 1;
-		NeighborhoodEnumeration ne = new NeighborhoodEnumeration(this, p);
+		int q = p.getY() * size + p.getX();
+		if (stringOf[q] < 0)
+			return 0;
+		return removeString(stringOf[q], removed);
+	}
 
-		while (ne.hasMoreElements()) {
-			Point q = (Point) ne.nextElement();
-			if (getStone(q) == c)
-				r += removeChain(q, removed);
-		}
+	/**
+	 * Remove the string <code>str</code> from the board. The pseudo liberties
+	 * of the adjacent strings are updated, the removed stones are counted as
+	 * captured.
+	 * 
+	 * @return the number of removed stones
+	 */
+	private int removeString(int str, Vector<Point> removed)
+	{
+		BoardType c = boardRep[adj.xOf[str]][adj.yOf[str]];
+		int n = 0;
+		int stone = str;
+		do {
+			int next = nextStone[stone];
+			int x = adj.xOf[stone];
+			int y = adj.yOf[stone];
+			setPoint(x, y, BoardType.EMPTY);
+			stringOf[stone] = -1;
+			for (int k = adj.first(stone), e = adj.end(stone); k < e; k++) {
+				int q = adj.neighbours[k];
+				if (stringOf[q] >= 0)
+					liberties[stringOf[q]]++;
+			}
+			removed.addElement(Point.of(x, y));
+			n++;
+			stone = next;
+		} while (stone != str);
 
 		if (c == BoardType.BLACK)
-			whiteCaptured += r;
+			whiteCaptured += n;
 		else
-			blackCaptured += r;
+			blackCaptured += n;
+
+		return n;
+	}
 
-		return r;
+	/**
+	 * Add the stone at <code>p</code> to the strings. The points adjacent to
+	 * <code>p</code> must already be linked, the point itself must not be
+	 * counted as liberty of its neighbours.
+	 */
+	private void link(int p)
+	{
+		BoardType c = boardRep[adj.xOf[p]][adj.yOf[p]];
+		stringOf[p] = p;
+		nextStone[p] = p;
+		stringSize[p] = 1;
+		liberties[p] = 0;
+		for (int k = adj.first(p), e = adj.end(p); k < e; k++) {
+			int q = adj.neighbours[k];
+			if (stringOf[q] < 0) {
+				if (boardRep[adj.xOf[q]][adj.yOf[q]] == BoardType.EMPTY)
+					liberties[stringOf[p]]++;
+			} else if (boardRep[adj.xOf[q]][adj.yOf[q]] == c
+					&& stringOf[q] != stringOf[p])
+				merge(stringOf[p], stringOf[q]);
+		}
 	}
 
-	/** addGobanListener method comment. */
-	public void removeGobanListener(GobanListener l)
+	/** Merge the strings <code>a</code> and <code>b</code>. */
+	private void merge(int a, int b)
 	{
-		listeners.remove(l);
+		if (stringSize[a] < stringSize[b]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+
+		int stone = b;
+		do {
+			stringOf[stone] = a;
+			stone = nextStone[stone];
+		} while (stone != b);
+
+		int t = nextStone[a];
+		nextStone[a] = nextStone[b];
+		nextStone[b] = t;
+		stringSize[a] += stringSize[b];
+		liberties[a] += liberties[b];
+	}
+
+	/**
+	 * Update the strings after a stone was placed on the empty point
+	 * <code>p</code>.
+	 */
+	private void stoneAdded(int p)
+	{
+		for (int k = adj.first(p), e = adj.end(p); k < e; k++) {
+			int q = adj.neighbours[k];
+			if (stringOf[q] >= 0)
+				liberties[stringOf[q]]--;
+		}
+		link(p);
+	}
+
+	/**
+	 * Update the strings after the stone at <code>p</code> was removed. The
+	 * string of <code>p</code> may fall apart, so the remaining stones are
+	 * linked again.
+	 */
+	private void stoneRemoved(int p)
+	{
+		int str = stringOf[p];
+		int stone = str;
+		do {
+			stringOf[stone] = -1;
+			stone = nextStone[stone];
+		} while (stone != str);
+
+		for (int k = adj.first(p), e = adj.end(p); k < e; k++) {
+			int q = adj.neighbours[k];
+			if (stringOf[q] >= 0)
+				liberties[stringOf[q]]++;
+		}
+
+		stone = nextStone[p];
+		while (stone != p) {
+			int next = nextStone[stone];
+			link(stone);
+			stone = next;
+		}
 	}
 
 	/**
@@ -287,56 +408,6 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 		return s.toString();
 	}
 
-	/**
-	 * Insert the method's description here. Creation date: (03/25/00 16:07:59)
-	 * 
-	 * @param x
-	 *            int
-	 * @param y
-	 *            int
-	 * @param c
-	 *            goban.BoardType
-	 */
-	protected void fireStoneAdded(int x, int y, BoardType c)
-	{
-		GobanEvent e = null;
-		// Process the listeners last to first, notifying
-		// those that are interested in this event
-		for (GobanListener listener : listeners) {
-			if (logger.isLoggable(Level.FINE))
-				logger.fine("Notifying listener ...");
-			// Lazily create the event:
-			if (e == null)
-				e = new GobanEvent(this, x, y, c);
-			listener.stoneAdded(e);
-		}
-	}
-
-	/**
-	 * Insert the method's description here. Creation date: (03/25/00 16:07:59)
-	 * 
-	 * @param x
-	 *            int
-	 * @param y
-	 *            int
-	 * @param c
-	 *            goban.BoardType
-	 */
-	protected void fireModelChanged()
-	{
-		GobanEvent e = null;
-		// Process the listeners last to first, notifying
-		// those that are interested in this event
-		for (GobanListener listener : listeners) {
-			if (logger.isLoggable(Level.FINE))
-				logger.fine("Notifying listener ...");
-			// Lazily create the event:
-			if (e == null)
-				e = new GobanEvent(this);
-			listener.modelChanged(e);
-		}
-	}
-
 	/** getBoardSize method comment. */
 	final public int getBoardSize()
 	{
@@ -360,31 +431,45 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 		if (x < 0 || y < 0 || x >= getBoardSize() || y >= getBoardSize())
 			return;
 
-		int captured = 0;
 		BoardType enemy = color.opposite();
 		if (getStone(x, y) != BoardType.EMPTY)
 			return;
 
 		setStone(x, y, color);
+		lastMove = Point.of(x, y);
+		setToMove(enemy);
 
-		Point p = new Point(x, y);
-		lastMove = p;
-		NeighborhoodEnumeration ne = new NeighborhoodEnumeration(this, p);
-		Vector removed = new Vector();
-		while (ne.hasMoreElements()) {
-			p = (Point) ne.nextElement();
-			visited++;
-			if (getStone(p) == enemy)
-				if (countLiberties(p) == 0)
-					captured += removeChain(p, removed);
+		int p = y * size + x;
+		int captured = 0;
+		int capturedAt = -1;
+		Vector<Point> removed = null;
+		for (int k = adj.first(p), e = adj.end(p); k < e; k++) {
+			int q = adj.neighbours[k];
+			if (boardRep[adj.xOf[q]][adj.yOf[q]] == enemy
+					&& liberties[stringOf[q]] == 0) {
+				if (removed == null)
+					removed = new Vector<Point>();
+				capturedAt = q;
+				captured += removeString(stringOf[q], removed);
+			}
 		}
-		visited++;
-		p = new Point(x, y);
-		if (countLiberties(p) == 0) {
-			removeChain(p, removed);
+
+		// A single stone capturing a single stone and having exactly one
+		// liberty left (the point of the captured stone) is a ko
+		if (captured == 1 && stringSize[stringOf[p]] == 1
+				&& liberties[stringOf[p]] == 1)
+			setKoPoint(Point.of(adj.xOf[capturedAt], adj.yOf[capturedAt]));
+		else
+			setKoPoint(null);
+
+		if (liberties[stringOf[p]] == 0) {
+			if (removed == null)
+				removed = new Vector<Point>();
+			removeString(stringOf[p], removed);
 			// throw new IllegalMove();
 		}
-		fireStonesRemoved(removed);
+		if (removed != null)
+			fireStonesRemoved(removed);
 		fireStoneAdded(x, y, color);
 	}
 
@@ -393,10 +478,16 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 		return lastMove;
 	}
 
+	protected void setLastMove(Point p)
+	{
+		lastMove = p;
+	}
+
 	/** putStone method comment. */
 	public void putStone(int x, int y, BoardType color)
 	{
 		setStone(x, y, color);
+		setKoPoint(null);
 		fireStoneAdded(x, y, color);
 	}
 
@@ -414,17 +505,13 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 				logger.fine("setBoardSize: " + s);
 			size = s;
 			boardRep = new BoardType[size][size];
-			tmpBoard = new int[size][size];
-			_hash = new int[16];
+			allocateStrings();
 
-			int i, j;
-			for (i = 0; i < size; i++) {
+			int i;
+			for (i = 0; i < size; i++)
 				java.util.Arrays.fill(boardRep[i], BoardType.EMPTY);
-				java.util.Arrays.fill(tmpBoard[i], 0);
-			}
-
-			for (i = 0; i < 16; i++)
-				_hash[i] = 0;
+			java.util.Arrays.fill(stringOf, -1);
+			clearHash();
 
 			numStones = 0;
 		}
@@ -438,16 +525,41 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 				logger.fine("setBoardSize: " + s);
 			size = s;
 			boardRep = new BoardType[size][size];
-			tmpBoard = new int[size][size];
-			_hash = new int[16];
-
-			int i;
-			for (i = 0; i < size; i++) {
-				java.util.Arrays.fill(tmpBoard[i], 0);
-			}
+			allocateStrings();
 		}
 	}
 
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		ByteBuffer buffer = ByteBuffer.allocate(GobanCodec.encodedSize(size));
+		GobanCodec.write(this, buffer);
+		out.write(buffer.array());
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException
+	{
+		in.defaultReadObject();
+		byte[] snapshot = new byte[GobanCodec.encodedSize(size)];
+		in.readFully(snapshot);
+		// force setBoardSize to allocate the board
+		size = 0;
+		GobanCodec.read(ByteBuffer.wrap(snapshot), this);
+	}
+
+	private void allocateStrings()
+	{
+		int n = size * size;
+		adj = Adjacency.forSize(size);
+		stringOf = new int[n];
+		nextStone = new int[n];
+		stringSize = new int[n];
+		liberties = new int[n];
+		mark = new int[n];
+		visited = 0;
+	}
+
 	/**
 	 * Insert the method's description here. Creation date: (03/25/00 18:52:08)
 	 * 
@@ -477,107 +589,34 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 	{
 		BoardType oc = boardRep[x][y];
 		if (oc != c) {
-			boardRep[x][y] = c;
-
-			if (oc != BoardType.EMPTY)
-				numStones--;
-			if (c != BoardType.EMPTY)
-				numStones++;
-
-			Symmetry.Iterator it = new Symmetry.Iterator();
-			while (it.hasNext()) {
-				Symmetry s = (Symmetry) it.next();
-				int si = s.toInt();
-				Point pt = s.transform(x, y, size);
-				if (oc != BoardType.EMPTY) {
-					if (s.transform(oc) == BoardType.BLACK)
-						_hash[si] ^= zobrist[pt.getY() * size + pt.getX()];
-					else
-						_hash[si] ^= ~zobrist[pt.getY() * size + pt.getX()];
-				}
-				if (c != BoardType.EMPTY) {
-					if (s.transform(c) == BoardType.BLACK)
-						_hash[si] ^= zobrist[pt.getY() * size + pt.getX()];
-					else
-						_hash[si] ^= ~zobrist[pt.getY() * size + pt.getX()];
-				}
+			int p = y * size + x;
+			if (oc != BoardType.EMPTY) {
+				setPoint(x, y, BoardType.EMPTY);
+				stoneRemoved(p);
 			}
-		}
-	}
-
-	public int _hash(Symmetry s)
-	{
-		// int h = (_hash[s.toInt()] & 0x01ffffff) | ((numStones & 0xfe) <<
-		// (32-7));
-		// assert h == __hash(s) : "hashes differ: " + this + ": " + numStones +
-		// ": " + h + " " + __hash(s);
-		// return h;
-		return __hash(s);
-	}
-
-	public int __hash(Symmetry s)
-	{
-		Point.BoardIterator it = new Point.BoardIterator(size);
-		int h = 0;
-		int n = 0;
-
-		while (it.hasNext()) {
-			Point p = (Point) it.next();
-			BoardType stone = getStone(p);
-			if (stone != BoardType.EMPTY) {
-				n++;
-				Point pt = s.transform(p, size);
-				int z = zobrist[pt.getY() * size + pt.getX()];
-				// logger.info("__hash: " + p + " " + pt + ": " + stone + " " +
-				// n + " " + z + " " + (-z));
-				if (s.transform(stone) == BoardType.BLACK)
-					h += z;
-				else
-					h -= z;
+			if (c != BoardType.EMPTY) {
+				setPoint(x, y, c);
+				stoneAdded(p);
 			}
 		}
-		// if (sym & 8 != 0) h ^= 0xffffffff;
-		h = (h & 0x01ffffff) | ((n & 0xfe) << (32 - 7));
-		return h;
 	}
 
-	public int hashCode()
+	/**
+	 * Set the point (x, y) and update the hash values, but not the strings.
+	 */
+	private void setPoint(int x, int y, BoardType c)
 	{
-		Symmetry.Iterator it = new Symmetry.Iterator();
-		int h = 0;
-
-		while (it.hasNext()) {
-			Symmetry s = (Symmetry) it.next();
-			int _h = _hash(s);
-			if (h == 0 || _h > h) {
-				h = _h;
-			}
-		}
-
-		return h;
-	}
+		BoardType oc = boardRep[x][y];
+		if (oc != c) {
+			boardRep[x][y] = c;
 
-	public int zobristHash()
-	{
-		return hashCode();
-	}
+			if (oc != BoardType.EMPTY)
+				numStones--;
+			if (c != BoardType.EMPTY)
+				numStones++;
 
-	public boolean equals(Object o, Symmetry s)
-	{
-		if (o instanceof Goban) {
-			Goban goban = (Goban) o;
-			Point.BoardIterator it = new Point.BoardIterator(size);
-
-			while (it.hasNext()) {
-				Point p = (Point) it.next();
-				Point pt = s.transform(p, size);
-				BoardType stone = getStone(p);
-				if (goban.getStone(p) != s.transform(getStone(pt)))
-					return false;
-			}
-			return true;
+			updateHash(size, x, y, oc, c);
 		}
-		return false;
 	}
 
 	public boolean equals(Object o)
@@ -610,24 +649,6 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 		return false;
 	}
 
-	public Goban transform(Symmetry s)
-	{
-		int size = getBoardSize();
-		Goban m = newInstance();
-
-		Point.BoardIterator it = new Point.BoardIterator(size);
-
-		while (it.hasNext()) {
-			Point p = (Point) it.next();
-			BoardType stone = getStone(p);
-			if (stone != BoardType.EMPTY) {
-				Point pt = s.transform(p, size);
-				m.putStone(pt, s.transform(stone));
-			}
-		}
-		return m;
-	}
-
 	public Goban clone() throws CloneNotSupportedException
 	{
 		Goban model = new SimpleGoban();
@@ -635,6 +656,13 @@ public class SimpleGoban extends AbstractGoban implements Serializable
 		return model;
 	}
 
+	public int estimateSize()
+	{
+		int n = size * size;
+		return super.estimateSize() + size * (16 + 4 * size) + 5
+				* (16 + 4 * n);
+	}
+
 	public Goban newInstance()
 	{
 		return new SimpleGoban(getBoardSize());
@@ -38,10 +38,18 @@ public class Symmetry
 			new Symmetry(11), new Symmetry(12), new Symmetry(14),
 			new Symmetry(13), new Symmetry(15) };
 
-	/*
-	 * private static Symmetry cache[] = new Symmetry[16]; static { int i; for
-	 * (i=0; i<16; i++) cache[i] = new Symmetry(i); }
+	/** The shared instances returned by {@link #of}. */
+	private static final Symmetry cache[] = new Symmetry[16];
+	static {
+		for (int i = 0; i < 16; i++)
+			cache[i] = new Symmetry(i);
+	}
+
+	/**
+	 * The permutations of the points of a board for the eight spatial
+	 * symmetries, indexed by board size and symmetry.
 	 */
+	private static final int[][][] permutations = new int[Point.MAX_SIZE + 1][][];
 
 	public static class Iterator implements java.util.Iterator
 	{
@@ -54,7 +62,7 @@ public class Symmetry
 
 		public Object next()
 		{
-			return new Symmetry(++i);
+			return of(++i);
 		}
 
 		public void remove()
@@ -74,7 +82,7 @@ public class Symmetry
 
 		public Object next()
 		{
-			return new Symmetry(++i);
+			return of(++i);
 		}
 
 		public void remove()
@@ -98,11 +106,73 @@ public class Symmetry
 		this.symmetry = symmetry;
 	}
 
+	/**
+	 * Get the shared instance of a symmetry. Shared instances must not be
+	 * passed to {@link #zobristHash(Goban)}, which modifies its receiver.
+	 * 
+	 * @param symmetry
+	 *            - the symmetry as returned by {@link #toInt}
+	 */
+	public static Symmetry of(int symmetry)
+	{
+		return cache[symmetry];
+	}
+
 	public int toInt()
 	{
 		return symmetry;
 	}
 
+	/**
+	 * Get the permutation tables of a board size. The entry
+	 * <code>[s][y * size + x]</code> is the index of the point (x, y)
+	 * transformed by the spatial symmetry <code>s</code>.
+	 * 
+	 * @param boardSize
+	 *            - the board size
+	 * @return the (shared) tables; must not be modified
+	 */
+	static int[][] permutations(int boardSize)
+	{
+		synchronized (permutations) {
+			if (permutations[boardSize] == null) {
+				int n = boardSize * boardSize;
+				int[][] p = new int[8][n];
+				for (int s = 0; s < 8; s++)
+					for (int y = 0; y < boardSize; y++)
+						for (int x = 0; x < boardSize; x++)
+							p[s][y * boardSize + x] = transformIndex(s, x, y,
+									boardSize);
+				permutations[boardSize] = p;
+			}
+			return permutations[boardSize];
+		}
+	}
+
+	/**
+	 * Get the permutation of the points of a board for this symmetry (the
+	 * color exchange is ignored). The entry <code>y * boardSize + x</code> is
+	 * the index of the transformed point (x, y).
+	 * 
+	 * @param boardSize
+	 *            - the board size
+	 * @return the (shared) permutation; must not be modified
+	 */
+	public int[] permutation(int boardSize)
+	{
+		return permutations(boardSize)[symmetry & 7];
+	}
+
+	/**
+	 * Transform the point with the index <code>y * boardSize + x</code>.
+	 * 
+	 * @return the index of the transformed point
+	 */
+	public int transformIndex(int index, int boardSize)
+	{
+		return permutations(boardSize)[symmetry & 7][index];
+	}
+
 	final public void transform(MutablePoint p, int boardSize)
 	{
 		int x = -1;
@@ -128,16 +198,55 @@ public class Symmetry
 
 	final public Point transform(Point p, int boardSize)
 	{
-		MutablePoint mp = new MutablePoint(p);
-		transform(mp, boardSize);
-		return mp;
+		return transform(p.getX(), p.getY(), boardSize);
 	}
 
 	final public Point transform(int x, int y, int boardSize)
 	{
-		MutablePoint mp = new MutablePoint(x, y);
-		transform(mp, boardSize);
-		return mp;
+		int tx;
+		int ty;
+
+		if ((symmetry & 4) == 0) {
+			tx = x;
+			ty = y;
+		} else {
+			tx = y;
+			ty = x;
+		}
+
+		if ((symmetry & 1) != 0)
+			tx = (boardSize - tx - 1);
+
+		if ((symmetry & 2) != 0)
+			ty = (boardSize - ty - 1);
+
+		return Point.of(tx, ty);
+	}
+
+	/**
+	 * Transform the point (x, y) with one of the eight spatial symmetries and
+	 * return the index <code>y * boardSize + x</code> of the result.
+	 */
+	static int transformIndex(int symmetry, int x, int y, int boardSize)
+	{
+		int tx;
+		int ty;
+
+		if ((symmetry & 4) == 0) {
+			tx = x;
+			ty = y;
+		} else {
+			tx = y;
+			ty = x;
+		}
+
+		if ((symmetry & 1) != 0)
+			tx = (boardSize - tx - 1);
+
+		if ((symmetry & 2) != 0)
+			ty = (boardSize - ty - 1);
+
+		return ty * boardSize + tx;
 	}
 
 	final public BoardType transform(BoardType c)
@@ -42,12 +42,12 @@ public class SymmetryGroup
 		symmetries = 1;
 		// logger.info("SymmetryGroup for \n" + model);
 
-		int h = ((AbstractGoban) model)._hash(new Symmetry(0));
+		long h = model.zobristHash(Symmetry.of(0));
 		int i;
 
 		for (i = 0; i < 8; i++) {
-			Symmetry s = new Symmetry(i);
-			int _h = ((AbstractGoban) model)._hash(s);
+			Symmetry s = Symmetry.of(i);
+			long _h = model.zobristHash(s);
 			// logger.info("SymmetryGroup: " + s + ": " + h + ", " + _h);
 			if (_h == h)
 				symmetries |= (1 << i);
@@ -65,7 +65,7 @@ public class SymmetryGroup
 
 		public Object next()
 		{
-			Symmetry s = new Symmetry(i);
+			Symmetry s = Symmetry.of(i);
 			for (i++; i < 16 && (symmetries & (1 << i)) == 0; i++)
 				;
 			logger.fine("SymmetryGroup.Iterator.next(): returning " + s);
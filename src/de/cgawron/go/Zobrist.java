@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+/**
+ * The random keys used for Zobrist hashing. The keys are generated on demand
+ * for each board size from a fixed seed, so hash values are stable between
+ * runs and may be stored.
+ * <p>
+ * For a board of size n the key table has 3*n*n entries: the keys for a black
+ * and a white stone on point p are at <code>2p</code> and <code>2p + 1</code>,
+ * the key for a ko at point p is at <code>2*n*n + p</code>.
+ *
+ * @author Christian Gawron
+ */
+final class Zobrist
+{
+	/** The key which is added if white is to move. */
+	static final long WHITE_TO_MOVE = 0x6a09e667f3bcc908L;
+
+	private static final long[][] keys = new long[Point.MAX_SIZE + 1][];
+
+	private Zobrist()
+	{
+	}
+
+	/**
+	 * Get the key table for a board size.
+	 *
+	 * @param size
+	 *            - the board size
+	 * @return the (shared) key table; must not be modified
+	 */
+	static long[] keys(int size)
+	{
+		synchronized (keys) {
+			if (keys[size] == null)
+				keys[size] = generate(0x9e3779b97f4a7c15L * size, 3 * size
+						* size);
+			return keys[size];
+		}
+	}
+
+	/**
+	 * Generate a table of random keys with SplitMix64. The same seed always
+	 * yields the same keys.
+	 *
+	 * @param seed
+	 *            - the seed
+	 * @param length
+	 *            - the number of keys
+	 * @return the keys
+	 */
+	static long[] generate(long seed, int length)
+	{
+		long[] k = new long[length];
+		for (int i = 0; i < length; i++) {
+			seed += 0x9e3779b97f4a7c15L;
+			long z = seed;
+			z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+			z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+			k[i] = z ^ (z >>> 31);
+		}
+		return k;
+	}
+
+	/** Fold a 64 bit hash value into an <code>int</code>. */
+	static int fold(long h)
+	{
+		return (int) (h ^ (h >>> 32));
+	}
+}
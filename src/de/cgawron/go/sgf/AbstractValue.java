@@ -318,17 +318,17 @@ public abstract class AbstractValue implements Value
 
 		public Point(String text)
 		{
-			point = new de.cgawron.go.Point(text);
+			point = de.cgawron.go.Point.of(text);
 		}
 
 		public Point(de.cgawron.go.Point p)
 		{
-			point = new de.cgawron.go.Point(p);
+			point = de.cgawron.go.Point.of(p);
 		}
 
 		public Point(short x, short y)
 		{
-			point = new de.cgawron.go.Point(x, y);
+			point = de.cgawron.go.Point.of(x, y);
 		}
 
 		public de.cgawron.go.Point getPoint()
@@ -357,7 +357,8 @@ public abstract class AbstractValue implements Value
 		{
 			// HACK! A point value should know about the board size ...
 			point = s.transform(point, (short) 19);
-			logger.info(toString() + ": transform(" + s + ")");
+			if (logger.isLoggable(Level.FINE))
+				logger.fine(toString() + ": transform(" + s + ")");
 		}
 	}
 
@@ -368,7 +369,7 @@ public abstract class AbstractValue implements Value
 
 		public Label(String pt, String text)
 		{
-			point = new de.cgawron.go.Point(pt);
+			point = de.cgawron.go.Point.of(pt);
 			this.text = text;
 			logger.fine("Value.Label " + text);
 		}
@@ -377,7 +378,8 @@ public abstract class AbstractValue implements Value
 		{
 			// HACK! A point value should know about the board size ...
 			point = s.transform(point, (short) 19);
-			logger.info(toString() + ": transform(" + s + ")");
+			if (logger.isLoggable(Level.FINE))
+				logger.fine(toString() + ": transform(" + s + ")");
 		}
 
 		public de.cgawron.go.Point getPoint()
@@ -409,7 +411,8 @@ public abstract class AbstractValue implements Value
 		short ly = 255;
 		short ux = -1;
 		short uy = -1;
-		SortedSet<de.cgawron.go.Point> points = new TreeSet<de.cgawron.go.Point>();
+		/** The points of the list in their packed form. */
+		BitSet points = new BitSet();
 
 		public short getMinX()
 		{
@@ -446,17 +449,17 @@ public abstract class AbstractValue implements Value
 				ux = 18;
 				uy = 18;
 			} else if (text.length() == 2) {
-				de.cgawron.go.Point p = new de.cgawron.go.Point(text);
+				de.cgawron.go.Point p = de.cgawron.go.Point.of(text);
 				add(p);
 				lx = p.getX();
 				ux = p.getX();
 				ly = p.getY();
 				uy = p.getY();
 			} else if (text.length() == 5) {
-				de.cgawron.go.Point p1 = new de.cgawron.go.Point(
-						text.substring(0, 2));
-				de.cgawron.go.Point p2 = new de.cgawron.go.Point(
-						text.substring(3, 5));
+				de.cgawron.go.Point p1 = de.cgawron.go.Point.of(text
+						.substring(0, 2));
+				de.cgawron.go.Point p2 = de.cgawron.go.Point.of(text
+						.substring(3, 5));
 
 				short x, y;
 				short xMin, xMax;
@@ -485,7 +488,7 @@ public abstract class AbstractValue implements Value
 					uy = yMax;
 				for (x = xMin; x <= xMax; x++)
 					for (y = yMin; y <= yMax; y++)
-						points.add(new de.cgawron.go.Point(x, y));
+						points.set(de.cgawron.go.Point.pack(x, y));
 
 				if (logger.isLoggable(Level.FINE))
 					logger.fine("PointList: " + xMin + ", " + xMax + ", "
@@ -496,15 +499,31 @@ public abstract class AbstractValue implements Value
 
 		public Value clone()
 		{
-			PointList list = new AbstractValue.PointList();
-			for (de.cgawron.go.Point p : points)
-				list.add(p);
+			AbstractValue.PointList list = new AbstractValue.PointList();
+			list.points.or(points);
+			list.lx = lx;
+			list.ly = ly;
+			list.ux = ux;
+			list.uy = uy;
 			return list;
 		}
 
 		public int size()
 		{
-			return points.size();
+			return points.cardinality();
+		}
+
+		public boolean contains(Object o)
+		{
+			if (o instanceof de.cgawron.go.Point) {
+				de.cgawron.go.Point p = (de.cgawron.go.Point) o;
+				if (p.getX() < 0 || p.getY() < 0
+						|| p.getX() >= de.cgawron.go.Point.MAX_SIZE
+						|| p.getY() >= de.cgawron.go.Point.MAX_SIZE)
+					return false;
+				return points.get(p.pack());
+			}
+			return false;
 		}
 
 		public boolean add(Value o)
@@ -535,13 +554,20 @@ public abstract class AbstractValue implements Value
 				ly = p.getY();
 			if (p.getY() > uy)
 				uy = p.getY();
-			return points.add(p);
+			int i = p.pack();
+			if (points.get(i))
+				return false;
+			points.set(i);
+			return true;
 		}
 
 		public boolean remove(de.cgawron.go.Point p)
 		{
-			boolean b = points.remove(p);
-			revalidate();
+			boolean b = contains(p);
+			if (b) {
+				points.clear(p.pack());
+				revalidate();
+			}
 			return b;
 		}
 
@@ -551,7 +577,7 @@ public abstract class AbstractValue implements Value
 			ly = 255;
 			ux = -1;
 			uy = -1;
-			Iterator it = points.iterator();
+			Iterator it = iterator();
 			de.cgawron.go.Point p;
 			while (it.hasNext()) {
 				p = (de.cgawron.go.Point) it.next();
@@ -568,12 +594,39 @@ public abstract class AbstractValue implements Value
 
 		public Iterator<de.cgawron.go.Point> iterator()
 		{
-			return points.iterator();
+			return new Iterator<de.cgawron.go.Point>() {
+				int next = points.nextSetBit(0);
+				int last = -1;
+
+				public boolean hasNext()
+				{
+					return next >= 0;
+				}
+
+				public de.cgawron.go.Point next()
+				{
+					if (next < 0)
+						throw new NoSuchElementException();
+					last = next;
+					next = points.nextSetBit(next + 1);
+					return de.cgawron.go.Point.unpack(last);
+				}
+
+				public void remove()
+				{
+					if (last < 0)
+						throw new IllegalStateException();
+					points.clear(last);
+					last = -1;
+					revalidate();
+				}
+			};
 		}
 
 		public void transform(Symmetry s)
 		{
-			logger.info(toString() + ": transform(" + s + ")");
+			if (logger.isLoggable(Level.FINE))
+				logger.fine(toString() + ": transform(" + s + ")");
 			Iterator it = iterator();
 			while (it.hasNext()) {
 				Object o = it.next();
@@ -593,7 +646,7 @@ public abstract class AbstractValue implements Value
 
 			while (ts.contains(q.setX((short) (p.getX() + width)))) {
 				width++;
-				r.add(new de.cgawron.go.Point(q));
+				r.add(de.cgawron.go.Point.of(q));
 			}
 			boolean b = true;
 			while (b) {
@@ -607,7 +660,7 @@ public abstract class AbstractValue implements Value
 					for (int i = 0; i < width; i++) {
 						q.setX((short) (p.getX() + i));
 						q.setY((short) (p.getY() + height + 1));
-						r.add(new de.cgawron.go.Point(q));
+						r.add(de.cgawron.go.Point.of(q));
 					}
 					height++;
 				}
@@ -620,7 +673,7 @@ public abstract class AbstractValue implements Value
 				// write a compressed PointList
 				TreeSet<de.cgawron.go.Point> ts = new TreeSet<de.cgawron.go.Point>();
 				TreeSet<de.cgawron.go.Point> r = new TreeSet<de.cgawron.go.Point>();
-				ts.addAll(points);
+				ts.addAll(this);
 
 				while (!ts.isEmpty()) {
 					int size1 = ts.size();
@@ -670,7 +723,7 @@ public abstract class AbstractValue implements Value
 		public String toString()
 		{
 			StringBuffer s = new StringBuffer();
-			Iterator it = points.iterator();
+			Iterator it = iterator();
 			while (it.hasNext()) {
 				s.append((de.cgawron.go.Point) it.next()).toString();
 			}
@@ -706,6 +759,9 @@ public abstract class AbstractValue implements Value
 				case ']':
 					out.print("\\]");
 					break;
+				case '\\':
+					out.print("\\\\");
+					break;
 				default:
 					out.print(c);
 					break;
@@ -744,6 +800,9 @@ public abstract class AbstractValue implements Value
 				case ']':
 					out.print("\\]");
 					break;
+				case '\\':
+					out.print("\\\\");
+					break;
 				default:
 					out.print(c);
 					break;
@@ -842,7 +901,8 @@ public abstract class AbstractValue implements Value
 
 		public void transform(Symmetry s)
 		{
-			logger.info(toString() + ": transform(" + s + ")");
+			if (logger.isLoggable(Level.FINE))
+				logger.fine(toString() + ": transform(" + s + ")");
 			Iterator it = iterator();
 			while (it.hasNext()) {
 				Object o = it.next();
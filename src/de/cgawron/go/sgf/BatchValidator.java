@@ -0,0 +1,459 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.Goban.BoardType;
+import de.cgawron.go.GobanDelta;
+import de.cgawron.go.MoveValidator;
+import de.cgawron.go.Point;
+import de.cgawron.go.SimpleGoban;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Validates a library of SGF files without a user interface. Each file is
+ * parsed and all variations of all games are replayed on a
+ * {@link MoveValidator}. Parse errors, illegal moves, unknown properties and
+ * charset problems are reported per file and node.
+ * <p>
+ * The files are validated in parallel by a fixed number of workers. A worker
+ * holds only the game tree of the file it validates and one board, so the
+ * memory used per worker is bounded by the maximum file size.
+ * <p>
+ * Usage:
+ * <code>BatchValidator [-threads n] [-maxSize bytes] file-or-directory...</code>
+ *
+ * @author Christian Gawron
+ */
+public class BatchValidator
+{
+	private static Logger logger = Logger.getLogger(BatchValidator.class
+			.getName());
+
+	/** The default maximum size of a file to validate. */
+	public static final long DEFAULT_MAX_FILE_SIZE = 4L * 1024 * 1024;
+
+	/** A problem found in a file. */
+	public static class Problem
+	{
+		public enum Kind
+		{
+			PARSE_ERROR, TOO_LARGE, ILLEGAL_MOVE, UNKNOWN_PROPERTY, CHARSET
+		}
+
+		private final Kind kind;
+		private final String path;
+		private final String message;
+
+		Problem(Kind kind, String path, String message)
+		{
+			this.kind = kind;
+			this.path = path;
+			this.message = message;
+		}
+
+		public Kind getKind()
+		{
+			return kind;
+		}
+
+		/**
+		 * Get the path of the node the problem was found in.
+		 *
+		 * @return the path, e.g. <code>node 17 [3:1]</code>, or
+		 *         <code>null</code> if the problem concerns the whole file
+		 */
+		public String getPath()
+		{
+			return path;
+		}
+
+		public String getMessage()
+		{
+			return message;
+		}
+
+		public String toString()
+		{
+			return kind + (path != null ? " at " + path : "") + ": " + message;
+		}
+	}
+
+	/** The result of validating one file. */
+	public static class Report
+	{
+		private final File file;
+		private final List<Problem> problems = new ArrayList<Problem>();
+		private int games;
+		private int nodes;
+
+		Report(File file)
+		{
+			this.file = file;
+		}
+
+		void add(Problem.Kind kind, String path, String message)
+		{
+			problems.add(new Problem(kind, path, message));
+		}
+
+		public File getFile()
+		{
+			return file;
+		}
+
+		public List<Problem> getProblems()
+		{
+			return problems;
+		}
+
+		/** Get the number of games in the file. */
+		public int getGames()
+		{
+			return games;
+		}
+
+		/** Get the number of nodes validated. */
+		public int getNodes()
+		{
+			return nodes;
+		}
+
+		public boolean isValid()
+		{
+			return problems.isEmpty();
+		}
+
+		public String toString()
+		{
+			return "Report[" + file + ", " + games + " games, " + nodes
+					+ " nodes, " + problems.size() + " problems]";
+		}
+	}
+
+	/** A node on the stack of the tree walk. */
+	private static class Frame
+	{
+		final Node node;
+		final int depth;
+		final String variations;
+		final String path;
+		int nextChild;
+		GobanDelta setup;
+		GobanDelta move;
+
+		Frame(String game, Node node, int depth, String variations)
+		{
+			this.node = node;
+			this.depth = depth;
+			this.variations = variations;
+			this.path = (game != null ? game + " " : "") + "node " + depth
+					+ (variations.length() == 0 ? "" : " [" + variations + "]");
+		}
+
+		Frame child(String game, int index)
+		{
+			String v = variations;
+			if (index != 0)
+				v = (v.length() == 0 ? "" : v + ", ") + (depth + 1) + ":"
+						+ index;
+			return new Frame(game, node.getChildren().get(index), depth + 1, v);
+		}
+	}
+
+	private final int threads;
+	private final long maxFileSize;
+
+	/**
+	 * Create a BatchValidator using one worker per processor.
+	 */
+	public BatchValidator()
+	{
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_FILE_SIZE);
+	}
+
+	/**
+	 * Create a BatchValidator.
+	 *
+	 * @param threads
+	 *            - the number of workers
+	 * @param maxFileSize
+	 *            - files larger than this are not parsed but reported as
+	 *            {@link Problem.Kind#TOO_LARGE}
+	 */
+	public BatchValidator(int threads, long maxFileSize)
+	{
+		this.threads = Math.max(threads, 1);
+		this.maxFileSize = maxFileSize;
+	}
+
+	/**
+	 * Validate files in parallel.
+	 *
+	 * @param files
+	 *            - the files to validate
+	 * @return the reports in the order of <code>files</code>
+	 */
+	public List<Report> validate(List<File> files) throws InterruptedException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Report>> futures = new ArrayList<Future<Report>>();
+			for (final File file : files) {
+				futures.add(executor.submit(new Callable<Report>() {
+					public Report call()
+					{
+						return validate(file);
+					}
+				}));
+			}
+
+			List<Report> reports = new ArrayList<Report>(files.size());
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					reports.add(futures.get(i).get());
+				} catch (ExecutionException ex) {
+					Report report = new Report(files.get(i));
+					report.add(Problem.Kind.PARSE_ERROR, null, String
+							.valueOf(ex.getCause()));
+					reports.add(report);
+				}
+			}
+			return reports;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Validate a single file. This method may be called from several threads.
+	 *
+	 * @param file
+	 *            - the file to validate
+	 * @return the report
+	 */
+	public Report validate(File file)
+	{
+		Report report = new Report(file);
+		if (file.length() > maxFileSize) {
+			report.add(Problem.Kind.TOO_LARGE, null, file.length()
+					+ " bytes exceed the limit of " + maxFileSize);
+			return report;
+		}
+
+		GameTree gameTree;
+		try {
+			gameTree = new GameTree(file);
+		} catch (Exception ex) {
+			if (logger.isLoggable(Level.FINE))
+				logger.log(Level.FINE, "parse error in " + file, ex);
+			report.add(Problem.Kind.PARSE_ERROR, null, String.valueOf(ex));
+			return report;
+		}
+
+		RootNode root = gameTree.getRoot();
+		if (root instanceof CollectionRoot) {
+			int i = 0;
+			for (Node game : root.getChildren())
+				validateGame(game, "game " + ++i, report);
+		} else
+			validateGame(root, null, report);
+		return report;
+	}
+
+	/**
+	 * Walk all variations of a game depth first on a single board. A node is
+	 * identified by its depth followed by the variations chosen on the way
+	 * from the root, e.g. <code>node 17 [3:1, 12:2]</code> is the node at
+	 * depth 17 reached by taking the second child at depth 3 and the third
+	 * child at depth 12.
+	 */
+	private void validateGame(Node root, final String game,
+			final Report report)
+	{
+		report.games++;
+		final MoveValidator validator = new MoveValidator(new SimpleGoban(
+				root.getBoardSize()));
+		final List<Frame> stack = new ArrayList<Frame>();
+		GameTreeWalker.traverse(root, new GameTreeWalker.Callback() {
+			public void enter(Node node)
+			{
+				Frame frame;
+				if (stack.isEmpty())
+					frame = new Frame(game, node, 0, "");
+				else {
+					Frame parent = stack.get(stack.size() - 1);
+					frame = parent.child(game, parent.nextChild++);
+				}
+				BatchValidator.this.enter(frame, validator, report);
+				stack.add(frame);
+			}
+
+			public void leave(Node node)
+			{
+				Frame frame = stack.remove(stack.size() - 1);
+				if (frame.move != null)
+					validator.undo(frame.move);
+				if (frame.setup != null)
+					validator.undo(frame.setup);
+			}
+		});
+	}
+
+	/**
+	 * Check the properties of a node and apply it to the board.
+	 */
+	private void enter(Frame frame, MoveValidator validator, Report report)
+	{
+		Node node = frame.node;
+		report.nodes++;
+		checkProperties(node, frame.path, report);
+
+		if (node.isBoardSetup()) {
+			validator.beginSetup();
+			putStones(node, Property.ADD_BLACK, BoardType.BLACK, validator);
+			putStones(node, Property.ADD_WHITE, BoardType.WHITE, validator);
+			putStones(node, Property.ADD_EMPTY, BoardType.EMPTY, validator);
+			frame.setup = validator.endSetup();
+		}
+
+		if (node.containsKey(Property.BLACK)
+				|| node.containsKey(Property.WHITE)) {
+			BoardType color = node.containsKey(Property.WHITE) ? BoardType.WHITE
+					: BoardType.BLACK;
+			Point p = node.getPoint(color == BoardType.WHITE ? Property.WHITE
+					: Property.BLACK);
+			int size = validator.getGoban().getBoardSize();
+			if (p != null && size <= 19 && p.getX() == 19 && p.getY() == 19)
+				// tt is a pass on boards up to 19x19
+				p = null;
+
+			MoveValidator.Result result = validator.check(p, color);
+			if (result != MoveValidator.Result.LEGAL) {
+				report.add(Problem.Kind.ILLEGAL_MOVE, frame.path, color + " "
+						+ p + ": " + result);
+				if (result == MoveValidator.Result.OUT_OF_BOARD)
+					p = null;
+			}
+			// replay the move anyway so the rest of the game can be checked
+			frame.move = validator.play(p, color);
+		}
+	}
+
+	private void putStones(Node node, Property.Key key, BoardType color,
+			MoveValidator validator)
+	{
+		if (!node.containsKey(key))
+			return;
+		for (Point p : node.get(key).getPointList())
+			validator.putStone(p, color);
+	}
+
+	private void checkProperties(Node node, String path, Report report)
+	{
+		for (Property property : node.values()) {
+			Property.Key key = property.getKey();
+			if (Property.getDescriptor(key) == null)
+				report.add(Problem.Kind.UNKNOWN_PROPERTY, path, key
+						.toString());
+
+			if (key.equals(Property.CHARACTER_SET)) {
+				String name = property.getValue().toString().trim();
+				boolean supported;
+				try {
+					supported = Charset.isSupported(name);
+				} catch (IllegalCharsetNameException ex) {
+					supported = false;
+				}
+				if (!supported)
+					report.add(Problem.Kind.CHARSET, path,
+							"unsupported charset " + name);
+			} else if (property instanceof Property.Text
+					&& property.getValue().toString().indexOf('\uFFFD') >= 0)
+				report.add(Problem.Kind.CHARSET, path,
+						"undecodable characters in " + key);
+		}
+	}
+
+	/**
+	 * Add the SGF files in <code>file</code> (or <code>file</code> itself)
+	 * to <code>files</code>.
+	 */
+	private static void collect(File file, List<File> files)
+	{
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children == null)
+				return;
+			Arrays.sort(children);
+			for (File child : children)
+				collect(child, files);
+		} else if (file.getName().toLowerCase().endsWith(".sgf"))
+			files.add(file);
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		int threads = Runtime.getRuntime().availableProcessors();
+		long maxFileSize = DEFAULT_MAX_FILE_SIZE;
+		List<File> files = new ArrayList<File>();
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-threads") && i + 1 < args.length)
+				threads = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-maxSize") && i + 1 < args.length)
+				maxFileSize = Long.parseLong(args[++i]);
+			else
+				collect(new File(args[i]), files);
+		}
+		if (files.isEmpty()) {
+			System.err
+					.println("usage: BatchValidator [-threads n] [-maxSize bytes] file-or-directory...");
+			System.exit(2);
+		}
+
+		long start = System.currentTimeMillis();
+		List<Report> reports = new BatchValidator(threads, maxFileSize)
+				.validate(files);
+		int games = 0, nodes = 0, problems = 0, invalid = 0;
+		for (Report report : reports) {
+			games += report.getGames();
+			nodes += report.getNodes();
+			problems += report.getProblems().size();
+			if (!report.isValid())
+				invalid++;
+			for (Problem problem : report.getProblems())
+				System.out.println(report.getFile() + ": " + problem);
+		}
+		System.out.println(files.size() + " files, " + games + " games, "
+				+ nodes + " nodes, " + problems + " problems in " + invalid
+				+ " files (" + (System.currentTimeMillis() - start) + " ms)");
+		System.exit(invalid == 0 ? 0 : 1);
+	}
+}
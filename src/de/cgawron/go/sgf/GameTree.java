@@ -21,7 +21,6 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -39,16 +38,18 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import de.cgawron.go.BitGoban;
 import de.cgawron.go.Goban;
+import de.cgawron.go.PersistentGoban;
 import de.cgawron.go.SimpleGoban;
 import de.cgawron.go.Symmetry;
 import de.cgawron.go.sgf.TreeIterator.PreorderIterator;
 import de.cgawron.util.Memento;
 import de.cgawron.util.MementoOriginator;
-import de.cgawron.util.MiscEncodingReader;
 
 /**
  * This class represents an SGF game tree.
@@ -73,14 +74,80 @@ public class GameTree implements TreeModel, PropertyChangeListener,
 	private boolean collection = false;
 	private final boolean rootOnly = false;
 
-	interface GobanFactory<M extends Goban>
+	/**
+	 * Creates the {@link Goban} instances used to hold the positions of the
+	 * nodes of a <code>GameTree</code>.
+	 */
+	public interface GobanFactory<M extends Goban>
 	{
 		M getGoban(short boardsize);
 
 		M getGoban(Goban m);
 	}
 
-	GobanFactory factory;
+	/**
+	 * Receives the positions calculated by {@link GameTree#forEachPosition}.
+	 */
+	public interface PositionConsumer
+	{
+		/**
+		 * Called once for each node. With an executor this is called
+		 * concurrently from several threads.
+		 * 
+		 * @param node
+		 *            - the node
+		 * @param goban
+		 *            - the position of the node; it is changed after this
+		 *            method returns and must be copied to be kept
+		 */
+		void position(Node node, Goban goban);
+	}
+
+	/** A {@link GobanFactory} creating {@link SimpleGoban}s. */
+	public static final GobanFactory<SimpleGoban> SIMPLE_GOBAN_FACTORY = new GobanFactory<SimpleGoban>() {
+		public SimpleGoban getGoban(short boardSize)
+		{
+			return new SimpleGoban(boardSize);
+		}
+
+		public SimpleGoban getGoban(Goban m)
+		{
+			return new SimpleGoban(m);
+		}
+	};
+
+	/** A {@link GobanFactory} creating {@link BitGoban}s. */
+	public static final GobanFactory<BitGoban> BIT_GOBAN_FACTORY = new GobanFactory<BitGoban>() {
+		public BitGoban getGoban(short boardSize)
+		{
+			return new BitGoban(boardSize);
+		}
+
+		public BitGoban getGoban(Goban m)
+		{
+			return new BitGoban(m);
+		}
+	};
+
+	/**
+	 * A {@link GobanFactory} creating {@link PersistentGoban}s. The position
+	 * of a node shares all unchanged rows with the position of its parent.
+	 */
+	public static final GobanFactory<PersistentGoban> PERSISTENT_GOBAN_FACTORY = new GobanFactory<PersistentGoban>() {
+		public PersistentGoban getGoban(short boardSize)
+		{
+			return new PersistentGoban(boardSize);
+		}
+
+		public PersistentGoban getGoban(Goban m)
+		{
+			return new PersistentGoban(m);
+		}
+	};
+
+	GobanFactory<?> factory;
+
+	private final PositionCache positionCache = new PositionCache();
 
 	abstract class NodeCount extends TreeVisitor<GameTree, Node>
 	{
@@ -165,9 +232,8 @@ public class GameTree implements TreeModel, PropertyChangeListener,
 	 */
 	public GameTree(File file) throws Exception
 	{
-		this(new FileInputStream(file));
+		this(new SGFParser(file), file.getPath());
 		this.file = file;
-		name = file.getPath();
 	}
 
 	/**
@@ -195,7 +261,8 @@ public class GameTree implements TreeModel, PropertyChangeListener,
 	 */
 	public GameTree(InputStream in) throws Exception
 	{
-		this(new MiscEncodingReader(in));
+		this(new SGFParser(in), "<unknown input>");
+		in.close();
 	}
 
 	/**
@@ -208,20 +275,19 @@ public class GameTree implements TreeModel, PropertyChangeListener,
 	 */
 	public GameTree(Reader reader) throws Exception
 	{
-		name = "<unknown input>";
-		listeners = new HashSet<EventListener>();
-		Yylex lexer = new Yylex(reader);
-		Parser parser = new Parser(lexer);
-		logger.info("parsing " + reader + " ...");
-		Object obj = parser.debug_parse().value;
-		logger.info("parsing done: " + obj.getClass());
-		if (obj instanceof CollectionRoot) {
-			init((CollectionRoot) obj);
-			collection = true;
-		} else {
-			init((GameTree) obj);
-		}
+		this(new SGFParser(reader), "<unknown input>");
 		reader.close();
+	}
+
+	private GameTree(SGFParser parser, String name) throws Exception
+	{
+		this.name = name;
+		listeners = new HashSet<EventListener>();
+		logger.info("parsing " + name + " ...");
+		Node node = parser.parse();
+		logger.info("parsing done: " + node.getClass());
+		init(node);
+		collection = node instanceof CollectionRoot;
 		setModified(false);
 	}
 
@@ -262,6 +328,67 @@ public class GameTree implements TreeModel, PropertyChangeListener,
 		addCanonicalDiagrams(movesPerFigure);
 	}
 
+	public GobanFactory<?> getGobanFactory()
+	{
+		return factory;
+	}
+
+	/**
+	 * Set the factory used to create the positions of the nodes. Positions
+	 * which were already calculated are not affected.
+	 * 
+	 * @param factory
+	 *            - the factory to use or <code>null</code> for the default
+	 */
+	public void setGobanFactory(GobanFactory<?> factory)
+	{
+		this.factory = factory;
+	}
+
+	/**
+	 * Get the cache holding the positions of the nodes of this tree.
+	 */
+	public PositionCache getPositionCache()
+	{
+		return positionCache;
+	}
+
+	/**
+	 * Calculate the position of every node in the calling thread. Unlike
+	 * {@link Node#getGoban} the positions are not stored in the nodes.
+	 * 
+	 * @param consumer
+	 *            - receives the positions in depth first order
+	 */
+	public void forEachPosition(PositionConsumer consumer)
+	{
+		try {
+			new PositionWalk(consumer, null).run(root);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Calculate the position of every node in parallel. The variations of a
+	 * node are calculated by separate tasks of <code>executor</code>, each
+	 * starting from a copy of the position of the node. The positions are not
+	 * stored in the nodes.
+	 * 
+	 * @param consumer
+	 *            - receives the positions; must be thread safe
+	 * @param executor
+	 *            - runs the tasks; the calling thread walks the main line
+	 * @throws InterruptedException
+	 *             if the calling thread is interrupted while waiting for the
+	 *             tasks
+	 */
+	public void forEachPosition(PositionConsumer consumer,
+			ExecutorService executor) throws InterruptedException
+	{
+		new PositionWalk(consumer, executor).run(root);
+	}
+
 	Goban getGoban(short boardSize)
 	{
 		if (factory != null)
@@ -1070,15 +1197,21 @@ public class GameTree implements TreeModel, PropertyChangeListener,
 		logger.info("join: their position: " + theirModel);
 
 		Symmetry symmetry = null;
-		Symmetry.Iterator it = new Symmetry.Iterator();
-		while (it.hasNext()) {
-			Symmetry s = (Symmetry) it.next();
-			if (myModel.equals(theirModel, s)) {
-				symmetry = s;
-				break;
+		// positions differing in their symmetric hash can't be transformed
+		// into each other
+		if (myModel.zobristHash64() == theirModel.zobristHash64()) {
+			for (int i = 0; i < 8; i++) {
+				Symmetry s = Symmetry.of(i);
+				if (myModel.equals(theirModel, s)) {
+					symmetry = s;
+					break;
+				}
 			}
 		}
 		logger.info("Symmetry is " + symmetry);
+		if (symmetry == null)
+			throw new IllegalArgumentException(
+					"join: the setup positions differ");
 		tree.transform(symmetry);
 
 		((Node) getRoot()).join(tree.getRoot());
@@ -1094,14 +1227,17 @@ public class GameTree implements TreeModel, PropertyChangeListener,
 				Iterator it = n.entrySet().iterator();
 				while (it.hasNext()) {
 					Map.Entry entry = (Map.Entry) it.next();
-					logger.info("Entry: " + entry);
+					if (logger.isLoggable(Level.FINE))
+						logger.fine("Entry: " + entry);
 					Property p = (Property) entry.getValue();
 					Value v = p.getValue();
 					if (v instanceof Value.Transformable) {
 						((Value.Transformable) v).transform(s);
 					}
 				}
-				if (n.getGoban() != null)
+				// released positions are rebuilt from the transformed
+				// properties
+				if (n.hasGoban())
 					n.setGoban(n.getGoban().transform(s), false);
 			}
 		};
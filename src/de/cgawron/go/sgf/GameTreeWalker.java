@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.AbstractGoban;
+import de.cgawron.go.GobanDelta;
+import de.cgawron.go.MoveValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Walks through a {@link GameTree} on a single mutable {@link AbstractGoban}.
+ * Moving to a child node applies the node's properties to the board and
+ * records a {@link GobanDelta}; moving back reverts it. Moving to an arbitrary
+ * node only reverts the nodes up to the common ancestor and applies the
+ * nodes from there, so no position needs to be stored in the nodes.
+ *
+ * @author Christian Gawron
+ */
+public class GameTreeWalker
+{
+	private static Logger logger = Logger.getLogger(GameTreeWalker.class
+			.getName());
+
+	/** Receives the nodes of a walk. */
+	public interface Callback
+	{
+		/**
+		 * Called when the walk enters a node, before its children.
+		 *
+		 * @param node
+		 *            - the node
+		 */
+		void enter(Node node);
+
+		/**
+		 * Called when the walk leaves a node, after its children.
+		 *
+		 * @param node
+		 *            - the node
+		 */
+		void leave(Node node);
+	}
+
+	private final AbstractGoban goban;
+
+	/** The nodes from the root to the current node. */
+	private final List<Node> path = new ArrayList<Node>();
+
+	/** The deltas of the nodes in <code>path</code>. */
+	private final List<GobanDelta> deltas = new ArrayList<GobanDelta>();
+
+	/** The position hashes of the nodes in <code>path</code>. */
+	private final List<Long> hashes = new ArrayList<Long>();
+
+	/**
+	 * Create a GameTreeWalker.
+	 *
+	 * @param goban
+	 *            - the board to use
+	 */
+	public GameTreeWalker(AbstractGoban goban)
+	{
+		this.goban = goban;
+	}
+
+	/**
+	 * Get the board. It holds the position of the current node and must not
+	 * be modified.
+	 */
+	public AbstractGoban getGoban()
+	{
+		return goban;
+	}
+
+	/**
+	 * Get the current node.
+	 *
+	 * @return the node or <code>null</code> if no node was visited
+	 */
+	public Node getCurrentNode()
+	{
+		return path.isEmpty() ? null : path.get(path.size() - 1);
+	}
+
+	/**
+	 * Get the changes made to the board by the current node.
+	 *
+	 * @return the delta or <code>null</code> if no node was visited
+	 */
+	public GobanDelta getDelta()
+	{
+		return deltas.isEmpty() ? null : deltas.get(deltas.size() - 1);
+	}
+
+	/**
+	 * Move to a node.
+	 *
+	 * @param node
+	 *            - the node to move to
+	 */
+	public void goTo(Node node)
+	{
+		List<Node> target = new ArrayList<Node>();
+		for (Node n = node; n != null; n = n.getParent())
+			target.add(0, n);
+
+		int common = 0;
+		while (common < path.size() && common < target.size()
+				&& path.get(common) == target.get(common))
+			common++;
+
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("goTo: " + node + ", undo " + (path.size() - common)
+					+ ", apply " + (target.size() - common));
+
+		if (common == 0)
+			reset(target.get(0));
+		else {
+			while (path.size() > common)
+				back();
+		}
+		for (int i = path.size(); i < target.size(); i++)
+			forward(target.get(i));
+	}
+
+	/**
+	 * Move to a child of the current node.
+	 *
+	 * @param child
+	 *            - the child node
+	 */
+	public void forward(Node child)
+	{
+		if (child.getParent() != getCurrentNode())
+			throw new IllegalArgumentException(child
+					+ " is not a child of the current node");
+
+		child.initMoveNo();
+		goban.beginDelta();
+		try {
+			child.apply(goban);
+		} catch (RuntimeException ex) {
+			goban.undo(goban.endDelta());
+			throw ex;
+		}
+		deltas.add(goban.endDelta());
+		hashes.add(MoveValidator.positionHash(goban));
+		path.add(child);
+	}
+
+	/**
+	 * Move to the parent of the current node.
+	 */
+	public void back()
+	{
+		if (path.isEmpty())
+			return;
+		int last = path.size() - 1;
+		path.remove(last);
+		hashes.remove(last);
+		goban.undo(deltas.remove(last));
+	}
+
+	/**
+	 * Walk all variations below <code>root</code> depth first. The board holds
+	 * the position of a node while the callback enters and leaves it. After
+	 * the walk the current node is <code>root</code>.
+	 *
+	 * @param root
+	 *            - the first node
+	 * @param callback
+	 *            - receives the nodes
+	 */
+	public void walk(final Node root, final Callback callback)
+	{
+		goTo(root);
+		traverse(root, new Callback() {
+			public void enter(Node node)
+			{
+				if (node != root)
+					forward(node);
+				callback.enter(node);
+			}
+
+			public void leave(Node node)
+			{
+				callback.leave(node);
+				if (node != root)
+					back();
+			}
+		});
+	}
+
+	/**
+	 * Visit all nodes below <code>root</code> depth first without a board.
+	 * The children of a node are entered in their order.
+	 *
+	 * @param root
+	 *            - the first node
+	 * @param callback
+	 *            - receives the nodes
+	 */
+	public static void traverse(Node root, Callback callback)
+	{
+		List<Node> stack = new ArrayList<Node>();
+		List<Integer> next = new ArrayList<Integer>();
+		callback.enter(root);
+		stack.add(root);
+		next.add(0);
+		while (!stack.isEmpty()) {
+			int top = stack.size() - 1;
+			Node node = stack.get(top);
+			int i = next.get(top);
+			if (i < node.getChildCount()) {
+				next.set(top, i + 1);
+				Node child = node.getChildAt(i);
+				callback.enter(child);
+				stack.add(child);
+				next.add(0);
+			} else {
+				stack.remove(top);
+				next.remove(top);
+				callback.leave(node);
+			}
+		}
+	}
+
+	/**
+	 * Create a {@link MoveValidator} for the position of the current node. The
+	 * validator knows the positions of all nodes from the root to the current
+	 * node, so it detects repetitions of these positions.
+	 */
+	public MoveValidator createValidator()
+	{
+		MoveValidator validator = new MoveValidator(goban);
+		for (int i = 0; i < hashes.size() - 1; i++)
+			validator.addPosition(hashes.get(i));
+		return validator;
+	}
+
+	/**
+	 * Clear the board for the game starting at <code>root</code>.
+	 */
+	private void reset(Node root)
+	{
+		path.clear();
+		deltas.clear();
+		hashes.clear();
+		goban.setBoardSize(root.getBoardSize());
+		goban.clear();
+		if (goban instanceof MarkupModel)
+			((MarkupModel) goban).resetMarkup();
+	}
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.Goban;
+import de.cgawron.go.Goban.BoardType;
+import de.cgawron.go.LocalPattern;
+import de.cgawron.go.Point;
+import de.cgawron.go.SimpleGoban;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An index of the moves played in the corners of a library of games, e.g. a
+ * joseki dictionary. The position of a corner is identified by the hash of
+ * the stones in the square of width {@link #getWidth} at the corner (the
+ * rest of the board is ignored), normalized under the reflection at the
+ * diagonal, so the same corner sequence is found in any corner and
+ * orientation.
+ * <p>
+ * For each corner position the index counts the moves played next inside
+ * the square. A lookup hashes the four corners of a position and costs a few
+ * microseconds, so it can be done for every node while browsing.
+ *
+ * @author Christian Gawron
+ */
+public class JosekiIndex
+{
+	private static Logger logger = Logger.getLogger(JosekiIndex.class
+			.getName());
+
+	/** The default width of a corner region. */
+	public static final int DEFAULT_WIDTH = 9;
+
+	/** A move seen in the library. */
+	public static class Continuation implements Comparable<Continuation>
+	{
+		private final Point point;
+		private final BoardType color;
+		private final int count;
+
+		Continuation(Point point, BoardType color, int count)
+		{
+			this.point = point;
+			this.color = color;
+			this.count = count;
+		}
+
+		/** Get the point of the move in the position looked up. */
+		public Point getPoint()
+		{
+			return point;
+		}
+
+		public BoardType getColor()
+		{
+			return color;
+		}
+
+		/** Get the number of times the move was played. */
+		public int getCount()
+		{
+			return count;
+		}
+
+		/** Order by decreasing frequency. */
+		public int compareTo(Continuation c)
+		{
+			return c.count < count ? -1 : (c.count == count ? 0 : 1);
+		}
+
+		public String toString()
+		{
+			return "Continuation[" + color + " " + point + " " + count + "x]";
+		}
+	}
+
+	private final int width;
+	private final LocalPattern.Keys keys;
+
+	/**
+	 * The move counts by corner hash. A move is stored by
+	 * <code>(color &lt;&lt; 16) | y * width + x</code>, where (x, y) is the
+	 * point in the normalized square with the corner point at (0, 0).
+	 */
+	private final Map<Long, Map<Integer, int[]>> moves = new HashMap<Long, Map<Integer, int[]>>();
+
+	public JosekiIndex()
+	{
+		this(DEFAULT_WIDTH);
+	}
+
+	/**
+	 * Create an index.
+	 *
+	 * @param width
+	 *            - the width of the corner regions
+	 */
+	public JosekiIndex(int width)
+	{
+		this.width = width;
+		this.keys = new LocalPattern.Keys(width);
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	/** Get the number of corner positions in the index. */
+	public synchronized int size()
+	{
+		return moves.size();
+	}
+
+	/**
+	 * Add the corner moves of all variations of a game.
+	 *
+	 * @param gameTree
+	 *            - the game
+	 * @return the number of moves added
+	 */
+	public synchronized int add(GameTree gameTree)
+	{
+		final GameTreeWalker walker = new GameTreeWalker(new SimpleGoban());
+		final int[] count = new int[1];
+		walker.walk(gameTree.getRoot(), new GameTreeWalker.Callback() {
+			public void enter(Node node)
+			{
+				// the moves of the children are played in this position
+				for (int i = 0; i < node.getChildCount(); i++)
+					count[0] += add(walker.getGoban(), node.getChildAt(i));
+			}
+
+			public void leave(Node node)
+			{
+			}
+		});
+		int n = count[0];
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("add: " + n + " corner moves of " + gameTree);
+		return n;
+	}
+
+	/**
+	 * Add the games of a library.
+	 *
+	 * @param gameTrees
+	 *            - the games
+	 * @return the number of moves added
+	 */
+	public int add(Iterable<GameTree> gameTrees)
+	{
+		int n = 0;
+		for (GameTree gameTree : gameTrees)
+			n += add(gameTree);
+		return n;
+	}
+
+	/**
+	 * Count the move of <code>node</code> for each corner containing it.
+	 */
+	private int add(Goban goban, Node node)
+	{
+		if (!node.isMove())
+			return 0;
+		BoardType color = node.containsKey(Property.WHITE) ? BoardType.WHITE
+				: BoardType.BLACK;
+		Point p = node.getPoint();
+		int size = goban.getBoardSize();
+		if (p == null || p.getX() >= size || p.getY() >= size)
+			// a pass
+			return 0;
+
+		int n = 0;
+		for (int corner = 0; corner < 4; corner++) {
+			int x = (corner & 1) != 0 ? size - 1 - p.getX() : p.getX();
+			int y = (corner & 2) != 0 ? size - 1 - p.getY() : p.getY();
+			if (x >= width || y >= width)
+				continue;
+
+			long h = LocalPattern.cornerHash(keys, goban, corner, false);
+			long t = LocalPattern.cornerHash(keys, goban, corner, true);
+			// a symmetric corner stores the move on one side of the diagonal
+			boolean transposed = t < h || (t == h && x > y);
+			Long key = Long.valueOf(Math.min(h, t));
+			Map<Integer, int[]> counts = moves.get(key);
+			if (counts == null) {
+				counts = new HashMap<Integer, int[]>();
+				moves.put(key, counts);
+			}
+			Integer move = Integer.valueOf((color.ordinal() << 16)
+					| (transposed ? x * width + y : y * width + x));
+			int[] count = counts.get(move);
+			if (count == null)
+				counts.put(move, new int[] { 1 });
+			else
+				count[0]++;
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Get the moves played in a corner of a position.
+	 *
+	 * @param goban
+	 *            - the position
+	 * @param corner
+	 *            - the corner: 0 is (0, 0), 1 is (size - 1, 0), 2 is (0,
+	 *            size - 1) and 3 is (size - 1, size - 1)
+	 * @return the moves with the most frequent first
+	 */
+	public List<Continuation> lookup(Goban goban, int corner)
+	{
+		List<Continuation> result = new ArrayList<Continuation>();
+		lookup(goban, corner, result);
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Get the moves played in the corners of a position.
+	 *
+	 * @param goban
+	 *            - the position
+	 * @return the moves with the most frequent first
+	 */
+	public List<Continuation> lookup(Goban goban)
+	{
+		List<Continuation> result = new ArrayList<Continuation>();
+		for (int corner = 0; corner < 4; corner++)
+			lookup(goban, corner, result);
+		Collections.sort(result);
+		return result;
+	}
+
+	private void lookup(Goban goban, int corner, List<Continuation> result)
+	{
+		long h = LocalPattern.cornerHash(keys, goban, corner, false);
+		long t = LocalPattern.cornerHash(keys, goban, corner, true);
+		boolean transposed = t < h;
+		Map<Integer, int[]> counts;
+		synchronized (this) {
+			counts = moves.get(Long.valueOf(Math.min(h, t)));
+			if (counts == null)
+				return;
+			counts = new HashMap<Integer, int[]>(counts);
+		}
+
+		int size = goban.getBoardSize();
+		BoardType[] colors = BoardType.values();
+		for (Map.Entry<Integer, int[]> entry : counts.entrySet()) {
+			int move = entry.getKey();
+			int i = move & 0xffff;
+			int x = transposed ? i / width : i % width;
+			int y = transposed ? i % width : i / width;
+			if ((corner & 1) != 0)
+				x = size - 1 - x;
+			if ((corner & 2) != 0)
+				y = size - 1 - y;
+			if (x < 0 || y < 0 || x >= size || y >= size)
+				continue;
+			result.add(new Continuation(Point.of(x, y), colors[move >>> 16],
+					entry.getValue()[0]));
+		}
+	}
+
+	public String toString()
+	{
+		return "JosekiIndex[" + width + "x" + width + ", " + size()
+				+ " positions]";
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.AbstractGoban;
+import de.cgawron.go.Goban.BoardType;
+import de.cgawron.go.GobanCodec;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary snapshot of a {@link MarkupModel}. The snapshot starts
+ * with the snapshot of the board written by {@link GobanCodec}, so it can be
+ * read as a plain board, followed by the number of marked points (short) and
+ * for each marked point its index <code>y * size + x</code> (short), the
+ * type of the markup (byte) and the data of the markup: the color (byte) and
+ * number (int) of a move, the color of a stone, the color and text of a
+ * conflict mark or the text of a label. Texts are stored as their length
+ * (short) and their UTF-8 bytes.
+ *
+ * @author Christian Gawron
+ */
+public final class MarkupCodec
+{
+	private static final byte MOVE = 0;
+	private static final byte STONE = 1;
+	private static final byte CONFLICT_MARK = 2;
+	private static final byte TEXT = 3;
+	private static final byte TRIANGLE = 4;
+	private static final byte SQUARE = 5;
+	private static final byte CIRCLE = 6;
+	private static final byte MARK = 7;
+	private static final byte WHITE_TERRITORY = 8;
+	private static final byte BLACK_TERRITORY = 9;
+
+	private MarkupCodec()
+	{
+	}
+
+	/**
+	 * Get the size of the snapshot of a model.
+	 *
+	 * @return the size in bytes
+	 */
+	public static int encodedSize(MarkupModel model)
+	{
+		int size = model.getBoardSize();
+		int n = GobanCodec.encodedSize(size) + 2;
+		for (short y = 0; y < size; y++)
+			for (short x = 0; x < size; x++) {
+				MarkupModel.Markup markup = model.getMarkup(x, y);
+				if (markup != null)
+					n += 3 + dataSize(markup);
+			}
+		return n;
+	}
+
+	/**
+	 * Write a snapshot at the current position of a buffer. The position is
+	 * advanced past the snapshot.
+	 *
+	 * @param model
+	 *            - the board and markup
+	 * @param buffer
+	 *            - the buffer; {@link #encodedSize} bytes must remain
+	 */
+	public static void write(MarkupModel model, ByteBuffer buffer)
+	{
+		GobanCodec.write(model, buffer);
+		int size = model.getBoardSize();
+		int countPosition = buffer.position();
+		buffer.putShort((short) 0);
+		int count = 0;
+		for (short y = 0; y < size; y++)
+			for (short x = 0; x < size; x++) {
+				MarkupModel.Markup markup = model.getMarkup(x, y);
+				if (markup != null) {
+					buffer.putShort((short) (y * size + x));
+					write(markup, buffer);
+					count++;
+				}
+			}
+		buffer.putShort(countPosition, (short) count);
+	}
+
+	/**
+	 * Read a snapshot from the current position of a buffer into a model.
+	 * The position is advanced past the snapshot.
+	 *
+	 * @param buffer
+	 *            - the buffer
+	 * @param model
+	 *            - the model to set up; its markup is replaced
+	 * @throws IllegalArgumentException
+	 *             if the buffer does not hold a snapshot
+	 */
+	public static <M extends AbstractGoban & MarkupModel> void read(
+			ByteBuffer buffer, M model)
+	{
+		model.beginUpdate();
+		try {
+			GobanCodec.read(buffer, model);
+			model.resetMarkup();
+			int size = model.getBoardSize();
+			int count = buffer.getShort();
+			for (int i = 0; i < count; i++) {
+				int index = buffer.getShort();
+				model.setMarkup((short) (index % size), (short) (index / size),
+						readMarkup(buffer));
+			}
+		} catch (BufferUnderflowException ex) {
+			throw new IllegalArgumentException("truncated markup snapshot");
+		} finally {
+			model.endUpdate();
+		}
+	}
+
+	private static int dataSize(MarkupModel.Markup markup)
+	{
+		if (markup instanceof MarkupModel.Move)
+			return 5;
+		else if (markup instanceof MarkupModel.ConflictMark)
+			return 1 + 2 + utf8(markup.toString()).length;
+		else if (markup instanceof MarkupModel.Stone)
+			return 1;
+		else if (markup instanceof MarkupModel.Text)
+			return 2 + utf8(markup.toString()).length;
+		else
+			return 0;
+	}
+
+	private static void write(MarkupModel.Markup markup, ByteBuffer buffer)
+	{
+		if (markup instanceof MarkupModel.Move) {
+			MarkupModel.Move move = (MarkupModel.Move) markup;
+			buffer.put(MOVE);
+			buffer.put(color(move.getColor()));
+			buffer.putInt(move.getMoveNo());
+		} else if (markup instanceof MarkupModel.ConflictMark) {
+			buffer.put(CONFLICT_MARK);
+			buffer.put(color(((MarkupModel.Stone) markup).getColor()));
+			putString(buffer, markup.toString());
+		} else if (markup instanceof MarkupModel.Stone) {
+			buffer.put(STONE);
+			buffer.put(color(((MarkupModel.Stone) markup).getColor()));
+		} else if (markup instanceof MarkupModel.Text) {
+			buffer.put(TEXT);
+			putString(buffer, markup.toString());
+		} else if (markup instanceof MarkupModel.Triangle)
+			buffer.put(TRIANGLE);
+		else if (markup instanceof MarkupModel.Square)
+			buffer.put(SQUARE);
+		else if (markup instanceof MarkupModel.Circle)
+			buffer.put(CIRCLE);
+		else if (markup instanceof MarkupModel.Mark)
+			buffer.put(MARK);
+		else if (markup instanceof MarkupModel.WhiteTerritory)
+			buffer.put(WHITE_TERRITORY);
+		else if (markup instanceof MarkupModel.BlackTerritory)
+			buffer.put(BLACK_TERRITORY);
+		else
+			throw new IllegalArgumentException("unknown markup "
+					+ markup.getClass().getName());
+	}
+
+	private static MarkupModel.Markup readMarkup(ByteBuffer buffer)
+	{
+		byte type = buffer.get();
+		switch (type) {
+		case MOVE:
+			BoardType color = color(buffer.get());
+			return new MarkupModel.Move(color, buffer.getInt());
+		case STONE:
+			return new MarkupModel.Stone(color(buffer.get()));
+		case CONFLICT_MARK:
+			MarkupModel.Stone stone = new MarkupModel.Stone(color(buffer
+					.get()));
+			return new MarkupModel.ConflictMark(stone, getString(buffer));
+		case TEXT:
+			return new MarkupModel.Text(getString(buffer));
+		case TRIANGLE:
+			return new MarkupModel.Triangle();
+		case SQUARE:
+			return new MarkupModel.Square();
+		case CIRCLE:
+			return new MarkupModel.Circle();
+		case MARK:
+			return new MarkupModel.Mark();
+		case WHITE_TERRITORY:
+			return new MarkupModel.WhiteTerritory();
+		case BLACK_TERRITORY:
+			return new MarkupModel.BlackTerritory();
+		default:
+			throw new IllegalArgumentException("unknown markup type " + type);
+		}
+	}
+
+	private static byte color(BoardType color)
+	{
+		return (byte) (color == BoardType.BLACK ? 1
+				: (color == BoardType.WHITE ? 2 : 0));
+	}
+
+	private static BoardType color(byte color)
+	{
+		return color == 1 ? BoardType.BLACK
+				: (color == 2 ? BoardType.WHITE : BoardType.EMPTY);
+	}
+
+	private static void putString(ByteBuffer buffer, String s)
+	{
+		byte[] bytes = utf8(s);
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+
+	private static String getString(ByteBuffer buffer)
+	{
+		byte[] bytes = new byte[buffer.getShort() & 0xffff];
+		buffer.get(bytes);
+		try {
+			return new String(bytes, "UTF-8");
+		} catch (UnsupportedEncodingException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private static byte[] utf8(String s)
+	{
+		try {
+			return s.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+}
@@ -15,6 +15,7 @@ package de.cgawron.go.sgf;
 
 import de.cgawron.go.Goban;
 import de.cgawron.go.Point;
+import de.cgawron.go.Scorer;
 import java.util.SortedSet;
 
 /**
@@ -342,6 +343,15 @@ public interface MarkupModel extends Goban
 
 	void setMarkup(short x, short y, Markup m);
 
+	/**
+	 * Mark the territory of a score with {@link BlackTerritory} and
+	 * {@link WhiteTerritory} markup.
+	 * 
+	 * @param score
+	 *            - the score of the position of this model
+	 */
+	void setTerritory(Scorer.Score score);
+
 	Region getRegion();
 
 	void setRegion(Region region);
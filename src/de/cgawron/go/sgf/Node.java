@@ -32,6 +32,7 @@ import java.util.Queue;
 import java.util.SortedMap;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,7 +66,7 @@ public class Node extends PropertyList implements MarkupModelListener,
 	private final int id;
 	private PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
-	private static int lastId = 0;
+	private static AtomicInteger lastId = new AtomicInteger();
 	private static Logger logger = Logger.getLogger(Node.class.getName());
 
 	/**
@@ -80,7 +81,7 @@ public class Node extends PropertyList implements MarkupModelListener,
 		 * Compare two Nodes by comparing the values of the Zobrist hash of
 		 * their Gobans.
 		 * 
-		 * @see de.cgawron.go.goban.Goban#zobristHash
+		 * @see de.cgawron.go.Goban#zobristHash64
 		 * @see "Comparator in the Java API documentation."
 		 */
 		public int compare(Goban o1, Goban o2)
@@ -96,8 +97,8 @@ public class Node extends PropertyList implements MarkupModelListener,
 			else
 				m2 = o2;
 
-			int h1 = m1.zobristHash();
-			int h2 = m2.zobristHash();
+			long h1 = m1.zobristHash64();
+			long h2 = m2.zobristHash64();
 			if (h1 < h2)
 				return -1;
 			else if (h1 > h2)
@@ -444,7 +445,7 @@ public class Node extends PropertyList implements MarkupModelListener,
 	{
 		super();
 		this.gameTree = gameTree;
-		id = ++lastId;
+		id = lastId.incrementAndGet();
 		pcs = new PropertyChangeSupport(this);
 	}
 
@@ -459,7 +460,7 @@ public class Node extends PropertyList implements MarkupModelListener,
 		super(n);
 		initInheritedProperties(n);
 		this.gameTree = n.gameTree;
-		id = ++lastId;
+		id = lastId.incrementAndGet();
 		pcs = new PropertyChangeSupport(this);
 	}
 
@@ -467,7 +468,7 @@ public class Node extends PropertyList implements MarkupModelListener,
 	{
 		super(pl);
 		initInheritedProperties(pl);
-		id = ++lastId;
+		id = lastId.incrementAndGet();
 		pcs = new PropertyChangeSupport(this);
 	}
 
@@ -799,9 +800,20 @@ public class Node extends PropertyList implements MarkupModelListener,
 	}
 
 
+	/**
+	 * Get the position of this node. The position is calculated on demand
+	 * from the position of the nearest ancestor holding one; positions are
+	 * released by the {@link PositionCache} of the game tree.
+	 */
 	public Goban getGoban()
 	{
-		if (goban == null) {
+		PositionCache cache = getPositionCache();
+		if (goban != null) {
+			if (cache != null)
+				cache.hit(this);
+		} else {
+			if (cache != null)
+				cache.miss(this);
 			Node node = this;
 			Stack<Node> nodes = new Stack<Node>();
 			while (node != null && node.goban == null) {
@@ -830,7 +842,15 @@ public class Node extends PropertyList implements MarkupModelListener,
 		} else {
 			setGoban(gameTree.getGoban(parent.getGoban()));
 		}
+		initMoveNo();
+	}
 
+	/**
+	 * Set the move number of this node from the MN property or the move
+	 * number of the parent node.
+	 */
+	void initMoveNo()
+	{
 		if (contains(Property.MOVE_NO)) {
 			Value.Number no = null;
 
@@ -860,9 +880,30 @@ public class Node extends PropertyList implements MarkupModelListener,
 	}
 
 	private void doMarkup()
+	{
+		apply(goban);
+	}
+
+	/**
+	 * Apply the moves, setup and markup properties of this node to a goban.
+	 * 
+	 * @param goban
+	 *            - the goban holding the position of the parent node
+	 */
+	void apply(Goban goban)
+	{
+		goban.beginUpdate();
+		try {
+			applyProperties(goban);
+		} finally {
+			goban.endUpdate();
+		}
+	}
+
+	private void applyProperties(Goban goban)
 	{
 		if (logger.isLoggable(Level.FINE))
-			logger.fine("doMarkup: enter");
+			logger.fine("apply: enter");
 		if (contains(Property.SIZE)) {
 			Value.Number size = (Value.Number) (get(Property.SIZE)).getValue();
 			goban.setBoardSize((short) size.intValue());
@@ -884,36 +925,21 @@ public class Node extends PropertyList implements MarkupModelListener,
 		}
 		if (contains(Property.ADD_BLACK)) {
 			Value.PointList pointList = getPointList(Property.ADD_BLACK);
-			Iterator it = pointList.iterator();
-			Point pt;
-			while (it.hasNext()) {
-				pt = (Point) it.next();
-				if (logger.isLoggable(Level.FINE))
-					logger.fine("Node " + this + ": AddBlack at " + pt);
-				goban.putStone(pt, BoardType.BLACK);
-			}
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("Node " + this + ": AddBlack at " + pointList);
+			goban.putStones(pointList, BoardType.BLACK);
 		}
 		if (contains(Property.ADD_WHITE)) {
 			Value.PointList pointList = getPointList(Property.ADD_WHITE);
-			Iterator it = pointList.iterator();
-			Point pt;
-			while (it.hasNext()) {
-				pt = (Point) it.next();
-				if (logger.isLoggable(Level.FINE))
-					logger.fine("Node " + this + ": AddWhite at " + pt);
-				goban.putStone(pt, BoardType.WHITE);
-			}
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("Node " + this + ": AddWhite at " + pointList);
+			goban.putStones(pointList, BoardType.WHITE);
 		}
 		if (contains(Property.ADD_EMPTY)) {
 			Value.PointList pointList = getPointList(Property.ADD_EMPTY);
-			Iterator it = pointList.iterator();
-			Point pt;
-			while (it.hasNext()) {
-				pt = (Point) it.next();
-				if (logger.isLoggable(Level.FINE))
-					logger.fine("Node " + this + ": AddEmpty at " + pt);
-				goban.putStone(pt, BoardType.EMPTY);
-			}
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("Node " + this + ": AddEmpty at " + pointList);
+			goban.putStones(pointList, BoardType.EMPTY);
 		}
 
 		if (goban instanceof MarkupModel) {
@@ -1029,7 +1055,7 @@ public class Node extends PropertyList implements MarkupModelListener,
 		// if (logger.isLoggable(Level.FINE))
 		// logger.fine("Node: goban is " + goban);
 		if (logger.isLoggable(Level.FINE))
-			logger.fine("doMarkup: leave");
+			logger.fine("apply: leave");
 	}
 
 	public void setGoban(Goban newGoban)
@@ -1037,6 +1063,32 @@ public class Node extends PropertyList implements MarkupModelListener,
 		setGoban(newGoban, true);
 	}
 
+	/** Check if this node currently holds its position. */
+	boolean hasGoban()
+	{
+		return goban != null;
+	}
+
+	/**
+	 * Release the position of this node. This is called by the
+	 * {@link PositionCache}.
+	 */
+	void releaseGoban()
+	{
+		if (goban != null) {
+			goban.removeGobanListener(this);
+			goban = null;
+		}
+	}
+
+	private PositionCache getPositionCache()
+	{
+		if (gameTree == null && parent == null)
+			return null;
+		else
+			return getGameTree().getPositionCache();
+	}
+
 	public void setGoban(Goban newGoban, boolean doMarkup)
 	{
 		Goban oldGoban = goban;
@@ -1051,6 +1103,14 @@ public class Node extends PropertyList implements MarkupModelListener,
 		firePropertyChange("goban", oldGoban, newGoban);
 		if (newGoban != null)
 			newGoban.addGobanListener(this);
+
+		PositionCache cache = getPositionCache();
+		if (cache != null) {
+			if (newGoban != null)
+				cache.put(this, newGoban);
+			else
+				cache.remove(this);
+		}
 	}
 
 	@Override
@@ -1089,6 +1149,18 @@ public class Node extends PropertyList implements MarkupModelListener,
 		return children.add(n);
 	}
 
+	/**
+	 * Add a child to a node built by a parser. Such nodes don't have a
+	 * cached depth yet, so unlike {@link #add} this doesn't need to
+	 * invalidate the depth of all ancestors.
+	 */
+	boolean addParsed(Node n)
+	{
+		assert depth < 0 && n.depth < 0;
+		n.setParent(this);
+		return children.add(n);
+	}
+
 	public void setParent(Node n)
 	{
 		assert n != this;
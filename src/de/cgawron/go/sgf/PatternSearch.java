@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.LocalPattern;
+import de.cgawron.go.PatternMatcher;
+import de.cgawron.go.Point;
+import de.cgawron.go.SimpleGoban;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Finds the nodes of game trees where a {@link LocalPattern} appears. All
+ * variations are replayed on a single board with a {@link GameTreeWalker};
+ * after the root only the regions changed by a node are matched, so a search
+ * costs little more than replaying the games.
+ *
+ * @author Christian Gawron
+ */
+public class PatternSearch
+{
+	private static Logger logger = Logger.getLogger(PatternSearch.class
+			.getName());
+
+	/** An occurrence of the pattern. */
+	public static class Match
+	{
+		private final Node node;
+		private final Point point;
+
+		Match(Node node, Point point)
+		{
+			this.node = node;
+			this.point = point;
+		}
+
+		/** Get the node where the pattern appears. */
+		public Node getNode()
+		{
+			return node;
+		}
+
+		/**
+		 * Get the center of the matching region or, for a corner pattern, the
+		 * corner point.
+		 */
+		public Point getPoint()
+		{
+			return point;
+		}
+
+		public String toString()
+		{
+			return "Match[" + node + " at " + point + "]";
+		}
+	}
+
+	private final PatternMatcher matcher;
+
+	/**
+	 * Create a search for a pattern.
+	 *
+	 * @param pattern
+	 *            - the pattern to find
+	 */
+	public PatternSearch(LocalPattern pattern)
+	{
+		matcher = new PatternMatcher(pattern);
+	}
+
+	/**
+	 * Find the nodes where the pattern appears, i.e. the nodes whose changes
+	 * create a matching region. A region already matching in the parent node
+	 * is not reported again unless the node changes it.
+	 *
+	 * @param gameTree
+	 *            - the tree to search
+	 * @return the matches in depth first order
+	 */
+	public List<Match> find(GameTree gameTree)
+	{
+		final List<Match> matches = new ArrayList<Match>();
+		final GameTreeWalker walker = new GameTreeWalker(new SimpleGoban());
+		final Node root = gameTree.getRoot();
+		walker.walk(root, new GameTreeWalker.Callback() {
+			public void enter(Node node)
+			{
+				List<Point> points;
+				if (node == root)
+					points = matcher.find(walker.getGoban());
+				else
+					points = matcher.findChanged(walker.getGoban(), walker
+							.getDelta());
+				for (Point p : points)
+					matches.add(new Match(node, p));
+			}
+
+			public void leave(Node node)
+			{
+			}
+		});
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("find: " + matches.size() + " matches of "
+					+ matcher.getPattern() + " in " + gameTree);
+		return matches;
+	}
+
+	/**
+	 * Find the pattern in a library of game trees.
+	 *
+	 * @param gameTrees
+	 *            - the trees to search
+	 * @return the matches in the order of the trees
+	 */
+	public List<Match> find(Iterable<GameTree> gameTrees)
+	{
+		List<Match> matches = new ArrayList<Match>();
+		for (GameTree gameTree : gameTrees)
+			matches.addAll(find(gameTree));
+		return matches;
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.AbstractGoban;
+import de.cgawron.go.Goban;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A bounded cache of the positions ({@link Goban}s) held by the nodes of a
+ * {@link GameTree}. The cache keeps track of all nodes holding a position in
+ * least recently used order. If the number of positions or their estimated
+ * size exceeds the limits, the positions of the least recently used nodes are
+ * released. {@link Node#getGoban} rebuilds a released position from the
+ * nearest ancestor which still holds one.
+ * <p>
+ * At least the two most recently used positions are always kept, so a node
+ * can always be built from its parent.
+ *
+ * @author Christian Gawron
+ */
+public class PositionCache
+{
+	private static Logger logger = Logger.getLogger(PositionCache.class
+			.getName());
+
+	/** The default maximum number of positions. */
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+
+	/** The default maximum estimated size of all positions in bytes. */
+	public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+	/** The number of positions which are never released. */
+	private static final int MIN_ENTRIES = 2;
+
+	/** The estimated size of a goban which does not provide an estimate. */
+	private static final int DEFAULT_ENTRY_SIZE = 8192;
+
+	private static class Entry
+	{
+		final Node node;
+		final int bytes;
+
+		Entry(Node node, int bytes)
+		{
+			this.node = node;
+			this.bytes = bytes;
+		}
+	}
+
+	/**
+	 * The cached nodes in access order, keyed by node id (nodes compare by
+	 * their properties, so they can't be used as keys).
+	 */
+	private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<Integer, Entry>(
+			16, 0.75f, true);
+
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+	private long maxBytes = DEFAULT_MAX_BYTES;
+	private long bytes;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Estimate the memory used by a goban.
+	 *
+	 * @return the estimated size in bytes
+	 */
+	static int estimateSize(Goban goban)
+	{
+		if (goban instanceof AbstractGoban)
+			return ((AbstractGoban) goban).estimateSize();
+		else
+			return DEFAULT_ENTRY_SIZE;
+	}
+
+	/**
+	 * Register the position of a node. This may release the positions of
+	 * other nodes.
+	 */
+	synchronized void put(Node node, Goban goban)
+	{
+		Entry entry = new Entry(node, estimateSize(goban));
+		Entry old = entries.put(node.getId(), entry);
+		if (old != null)
+			bytes -= old.bytes;
+		bytes += entry.bytes;
+		evict(maxEntries, maxBytes);
+	}
+
+	/** Unregister the position of a node. */
+	synchronized void remove(Node node)
+	{
+		Entry old = entries.remove(node.getId());
+		if (old != null)
+			bytes -= old.bytes;
+	}
+
+	/** Record a lookup of a cached position. */
+	synchronized void hit(Node node)
+	{
+		hits++;
+		// update the access order
+		entries.get(node.getId());
+	}
+
+	/** Record a lookup of a position which has to be rebuilt. */
+	synchronized void miss(Node node)
+	{
+		misses++;
+	}
+
+	/**
+	 * Release least recently used positions until the limits are met.
+	 */
+	private void evict(int entryLimit, long byteLimit)
+	{
+		Iterator<Map.Entry<Integer, Entry>> it = entries.entrySet()
+				.iterator();
+		while (entries.size() > MIN_ENTRIES
+				&& (entries.size() > entryLimit || bytes > byteLimit)) {
+			Entry entry = it.next().getValue();
+			it.remove();
+			bytes -= entry.bytes;
+			evictions++;
+			entry.node.releaseGoban();
+		}
+	}
+
+	/**
+	 * Release all but the most recently used positions, e.g. if the system
+	 * runs low on memory.
+	 */
+	public synchronized void trim()
+	{
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("trim: releasing " + (entries.size() - MIN_ENTRIES)
+					+ " positions");
+		evict(0, 0);
+	}
+
+	/**
+	 * Set the maximum number of cached positions.
+	 *
+	 * @param maxEntries
+	 *            - the maximum number; values less than 2 are treated as 2
+	 */
+	public synchronized void setMaxEntries(int maxEntries)
+	{
+		this.maxEntries = Math.max(maxEntries, MIN_ENTRIES);
+		evict(this.maxEntries, maxBytes);
+	}
+
+	public synchronized int getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	/**
+	 * Set the maximum estimated size of the cached positions.
+	 *
+	 * @param maxBytes
+	 *            - the maximum size in bytes
+	 */
+	public synchronized void setMaxBytes(long maxBytes)
+	{
+		this.maxBytes = maxBytes;
+		evict(maxEntries, maxBytes);
+	}
+
+	public synchronized long getMaxBytes()
+	{
+		return maxBytes;
+	}
+
+	/** Get the number of cached positions. */
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	/** Get the estimated size of the cached positions in bytes. */
+	public synchronized long getBytes()
+	{
+		return bytes;
+	}
+
+	/** Get the number of lookups which found a cached position. */
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	/** Get the number of lookups which had to rebuild a position. */
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	/** Get the number of released positions. */
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	public synchronized String toString()
+	{
+		return "PositionCache[" + entries.size() + " positions, " + bytes
+				+ " bytes, " + hits + " hits, " + misses + " misses, "
+				+ evictions + " evictions]";
+	}
+}
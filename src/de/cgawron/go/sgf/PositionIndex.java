@@ -0,0 +1,463 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.Goban;
+import de.cgawron.go.SimpleGoban;
+import de.cgawron.go.Symmetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A persistent index of the positions of a library of games. It maps the
+ * normalized Zobrist hash of the position of every node to the game, the
+ * node and the symmetry of the position.
+ * <p>
+ * The index is an open addressing hash table with linear probing kept in a
+ * memory mapped file, so it is not loaded onto the heap and a lookup touches
+ * only a few pages. Each slot holds the hash (0 marks a free slot), the game
+ * id (-1 marks a removed entry) and the preorder index of the node together
+ * with the symmetry. The table is rebuilt with twice the capacity when it is
+ * three quarters full.
+ * <p>
+ * Each index file has an id chosen when the file is created. A client
+ * recording which games were added should record this id, since a damaged
+ * file is replaced by an empty index with a new id.
+ *
+ * @author Christian Gawron
+ */
+public class PositionIndex
+{
+	private static Logger logger = Logger.getLogger(PositionIndex.class
+			.getName());
+
+	private static final int MAGIC = 0x50494458; // PIDX
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 32;
+	private static final int SLOT_SIZE = 16;
+	private static final int MIN_CAPACITY = 1 << 12;
+
+	private static final int OFFSET_CAPACITY = 8;
+	private static final int OFFSET_USED = 12;
+	private static final int OFFSET_COUNT = 16;
+	private static final int OFFSET_ID = 24;
+
+	private static final int REMOVED = -1;
+
+	/** An entry of the index. */
+	public static class Entry
+	{
+		private final int gameId;
+		private final int node;
+		private final Symmetry symmetry;
+
+		Entry(int gameId, int node, Symmetry symmetry)
+		{
+			this.gameId = gameId;
+			this.node = node;
+			this.symmetry = symmetry;
+		}
+
+		/** Get the id of the game. */
+		public int getGameId()
+		{
+			return gameId;
+		}
+
+		/**
+		 * Get the preorder index of the node in the game tree.
+		 *
+		 * @see PositionIndex#getNode
+		 */
+		public int getNode()
+		{
+			return node;
+		}
+
+		/**
+		 * Get the symmetry under which the position has its normalized hash.
+		 */
+		public Symmetry getSymmetry()
+		{
+			return symmetry;
+		}
+
+		public String toString()
+		{
+			return "Entry[game " + gameId + ", node " + node + ", "
+					+ symmetry + "]";
+		}
+	}
+
+	private final File file;
+	private RandomAccessFile raf;
+	private MappedByteBuffer buffer;
+	private int capacity;
+	private int used;
+	private int count;
+	private long id;
+
+	/**
+	 * Open an index, creating the file if it does not exist.
+	 *
+	 * @param file
+	 *            - the index file
+	 */
+	public PositionIndex(File file) throws IOException
+	{
+		this.file = file;
+		if (file.exists() && file.length() >= HEADER_SIZE) {
+			map(file);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+					|| file.length() < HEADER_SIZE + (long) SLOT_SIZE
+							* buffer.getInt(OFFSET_CAPACITY)) {
+				logger.warning("PositionIndex: " + file
+						+ " is invalid, creating a new index");
+				close();
+				create(file, MIN_CAPACITY, newId());
+			}
+		} else
+			create(file, MIN_CAPACITY, newId());
+		id = buffer.getLong(OFFSET_ID);
+		capacity = buffer.getInt(OFFSET_CAPACITY);
+		used = buffer.getInt(OFFSET_USED);
+		count = buffer.getInt(OFFSET_COUNT);
+	}
+
+	private void map(File f) throws IOException
+	{
+		raf = new RandomAccessFile(f, "rw");
+		buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+				raf.length());
+	}
+
+	private static long newId()
+	{
+		long id = System.currentTimeMillis();
+		return id != 0 ? id : 1;
+	}
+
+	private void create(File f, int capacity, long id) throws IOException
+	{
+		raf = new RandomAccessFile(f, "rw");
+		raf.setLength(0);
+		raf.setLength(HEADER_SIZE + (long) SLOT_SIZE * capacity);
+		buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+				raf.length());
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putInt(OFFSET_CAPACITY, capacity);
+		buffer.putInt(OFFSET_USED, 0);
+		buffer.putInt(OFFSET_COUNT, 0);
+		buffer.putLong(OFFSET_ID, id);
+	}
+
+	/**
+	 * Get the id of the index file.
+	 *
+	 * @return a value which is never 0
+	 */
+	public long getId()
+	{
+		return id;
+	}
+
+	/**
+	 * Get the normalized hash of a position, i.e. the largest of the hashes
+	 * of the position seen through the eight spatial symmetries.
+	 */
+	public static long normalizedHash(Goban goban)
+	{
+		return goban.zobristHash(Symmetry.of(normalizingSymmetry(goban)));
+	}
+
+	/** Get the symmetry which yields the normalized hash. */
+	private static int normalizingSymmetry(Goban goban)
+	{
+		int symmetry = 0;
+		long max = goban.zobristHash(Symmetry.of(0));
+		for (int s = 1; s < 8; s++) {
+			long h = goban.zobristHash(Symmetry.of(s));
+			if (h > max) {
+				max = h;
+				symmetry = s;
+			}
+		}
+		return symmetry;
+	}
+
+	/**
+	 * Add the positions of all nodes of a game.
+	 *
+	 * @param gameId
+	 *            - the id of the game
+	 * @param gameTree
+	 *            - the game
+	 * @return the number of positions added
+	 */
+	public synchronized int addGame(final int gameId, GameTree gameTree)
+	{
+		final GameTreeWalker walker = new GameTreeWalker(new SimpleGoban());
+		final int[] count = new int[1];
+		walker.walk(gameTree.getRoot(), new GameTreeWalker.Callback() {
+			public void enter(Node node)
+			{
+				add(walker.getGoban(), gameId, count[0]++);
+			}
+
+			public void leave(Node node)
+			{
+			}
+		});
+		int n = count[0];
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("addGame: " + n + " positions of game " + gameId);
+		return n;
+	}
+
+	private void add(Goban goban, int gameId, int node)
+	{
+		int s = normalizingSymmetry(goban);
+		add(goban.zobristHash(Symmetry.of(s)), gameId, node, s);
+	}
+
+	/**
+	 * Add an entry.
+	 *
+	 * @param hash
+	 *            - the normalized hash of the position
+	 * @param gameId
+	 *            - the id of the game
+	 * @param node
+	 *            - the preorder index of the node
+	 * @param symmetry
+	 *            - the symmetry as returned by {@link Symmetry#toInt}
+	 */
+	public synchronized void add(long hash, int gameId, int node, int symmetry)
+	{
+		if (4L * (used + 1) > 3L * capacity)
+			grow();
+		put(hash == 0 ? 1 : hash, gameId, (node << 3) | (symmetry & 7));
+		used++;
+		count++;
+		writeCounts();
+	}
+
+	private void put(long hash, int gameId, int nodeAndSymmetry)
+	{
+		int mask = capacity - 1;
+		int i = slot(hash, mask);
+		while (buffer.getLong(offset(i)) != 0)
+			i = (i + 1) & mask;
+		int offset = offset(i);
+		buffer.putLong(offset, hash);
+		buffer.putInt(offset + 8, gameId);
+		buffer.putInt(offset + 12, nodeAndSymmetry);
+	}
+
+	/**
+	 * Find the games reaching a position.
+	 *
+	 * @param goban
+	 *            - the position
+	 * @return the entries of all nodes with this position
+	 */
+	public List<Entry> find(Goban goban)
+	{
+		return find(normalizedHash(goban));
+	}
+
+	/**
+	 * Find the entries with a normalized hash.
+	 *
+	 * @param hash
+	 *            - the hash as returned by {@link #normalizedHash}
+	 * @return the entries
+	 */
+	public synchronized List<Entry> find(long hash)
+	{
+		if (hash == 0)
+			hash = 1;
+		List<Entry> entries = new ArrayList<Entry>();
+		int mask = capacity - 1;
+		for (int i = slot(hash, mask);; i = (i + 1) & mask) {
+			int offset = offset(i);
+			long h = buffer.getLong(offset);
+			if (h == 0)
+				break;
+			if (h == hash) {
+				int gameId = buffer.getInt(offset + 8);
+				if (gameId != REMOVED) {
+					int ns = buffer.getInt(offset + 12);
+					entries.add(new Entry(gameId, ns >>> 3, Symmetry
+							.of(ns & 7)));
+				}
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Remove all entries of a game.
+	 *
+	 * @param gameId
+	 *            - the id of the game
+	 * @return the number of entries removed
+	 */
+	public int removeGame(int gameId)
+	{
+		return removeGames(Collections.singleton(gameId));
+	}
+
+	/**
+	 * Remove all entries of some games. The table is scanned once.
+	 *
+	 * @param gameIds
+	 *            - the ids of the games
+	 * @return the number of entries removed
+	 */
+	public synchronized int removeGames(Set<Integer> gameIds)
+	{
+		int n = 0;
+		for (int i = 0; i < capacity; i++) {
+			int offset = offset(i);
+			if (buffer.getLong(offset) != 0
+					&& gameIds.contains(buffer.getInt(offset + 8))) {
+				buffer.putInt(offset + 8, REMOVED);
+				n++;
+			}
+		}
+		count -= n;
+		writeCounts();
+		return n;
+	}
+
+	/** Get the number of entries. */
+	public synchronized int size()
+	{
+		return count;
+	}
+
+	/**
+	 * Get a node by its preorder index.
+	 *
+	 * @param gameTree
+	 *            - the game
+	 * @param index
+	 *            - the index as returned by {@link Entry#getNode}
+	 * @return the node or <code>null</code> if the game has fewer nodes
+	 */
+	public static Node getNode(GameTree gameTree, int index)
+	{
+		List<Node> stack = new ArrayList<Node>();
+		stack.add(gameTree.getRoot());
+		int n = 0;
+		while (!stack.isEmpty()) {
+			Node node = stack.remove(stack.size() - 1);
+			if (n++ == index)
+				return node;
+			for (int i = node.getChildCount() - 1; i >= 0; i--)
+				stack.add(node.getChildAt(i));
+		}
+		return null;
+	}
+
+	/** Write the changes to the file. */
+	public synchronized void flush()
+	{
+		buffer.force();
+	}
+
+	public synchronized void close() throws IOException
+	{
+		if (raf != null) {
+			buffer.force();
+			raf.close();
+			raf = null;
+		}
+	}
+
+	/**
+	 * Rebuild the table with twice the capacity, dropping removed entries.
+	 */
+	private void grow()
+	{
+		int newCapacity = Math.max(2 * capacity, MIN_CAPACITY);
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("grow: " + capacity + " -> " + newCapacity);
+
+		MappedByteBuffer old = buffer;
+		int oldCapacity = capacity;
+		RandomAccessFile oldFile = raf;
+		File tmp = new File(file.getPath() + ".tmp");
+		try {
+			create(tmp, newCapacity, id);
+			capacity = newCapacity;
+			used = 0;
+			for (int i = 0; i < oldCapacity; i++) {
+				int offset = offset(i);
+				long hash = old.getLong(offset);
+				int gameId = old.getInt(offset + 8);
+				if (hash != 0 && gameId != REMOVED) {
+					put(hash, gameId, old.getInt(offset + 12));
+					used++;
+				}
+			}
+			count = used;
+			writeCounts();
+			buffer.force();
+			oldFile.close();
+			if (!tmp.renameTo(file))
+				throw new IOException("can't rename " + tmp + " to " + file);
+		} catch (IOException ex) {
+			throw new RuntimeException("PositionIndex: growing " + file
+					+ " failed", ex);
+		}
+	}
+
+	private void writeCounts()
+	{
+		buffer.putInt(OFFSET_USED, used);
+		buffer.putInt(OFFSET_COUNT, count);
+	}
+
+	private static int slot(long hash, int mask)
+	{
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private static int offset(int slot)
+	{
+		return HEADER_SIZE + SLOT_SIZE * slot;
+	}
+
+	public String toString()
+	{
+		return "PositionIndex[" + file + ", " + count + " entries, capacity "
+				+ capacity + "]";
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.GobanDelta;
+import de.cgawron.go.SimpleGoban;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Calculates the positions of all nodes of a game tree for
+ * {@link GameTree#forEachPosition}. A task walks a subtree depth first on its
+ * own board, applying a node when entering it and undoing its
+ * {@link GobanDelta} when leaving it. The variations branching off a node,
+ * except the first one, are handed to new tasks with a copy of the board, so
+ * the subtrees of a wide tree are processed in parallel. Variations without
+ * children are walked in place as a copy would cost more than the node.
+ *
+ * @author Christian Gawron
+ */
+class PositionWalk
+{
+	private static Logger logger = Logger.getLogger(PositionWalk.class
+			.getName());
+
+	private final GameTree.PositionConsumer consumer;
+	private final ExecutorService executor;
+
+	/** The number of tasks not finished yet. */
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicInteger tasks = new AtomicInteger();
+	private final CountDownLatch finished = new CountDownLatch(1);
+	private volatile Throwable failure = null;
+
+	/**
+	 * Create a walk.
+	 *
+	 * @param consumer
+	 *            - the consumer of the positions
+	 * @param executor
+	 *            - the executor for the subtrees or <code>null</code> to walk
+	 *            the tree in the calling thread
+	 */
+	PositionWalk(GameTree.PositionConsumer consumer, ExecutorService executor)
+	{
+		this.consumer = consumer;
+		this.executor = executor;
+	}
+
+	/**
+	 * Walk the tree below <code>root</code> and wait until all positions are
+	 * delivered.
+	 */
+	void run(Node root) throws InterruptedException
+	{
+		SimpleGoban goban = new SimpleGoban(root.getBoardSize());
+		pending.incrementAndGet();
+		new Task(root, goban).run();
+		finished.await();
+
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("run: " + tasks.get() + " tasks");
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		else if (failure instanceof Error)
+			throw (Error) failure;
+	}
+
+	private void fork(Node node, SimpleGoban goban)
+	{
+		pending.incrementAndGet();
+		Task task = new Task(node, new SimpleGoban(goban));
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException ex) {
+			task.run();
+		}
+	}
+
+	private class Task implements Runnable
+	{
+		private final Node start;
+		private final SimpleGoban goban;
+
+		/**
+		 * Create a task.
+		 *
+		 * @param start
+		 *            - the first node of the subtree
+		 * @param goban
+		 *            - the position of the parent of <code>start</code>
+		 */
+		Task(Node start, SimpleGoban goban)
+		{
+			this.start = start;
+			this.goban = goban;
+		}
+
+		public void run()
+		{
+			tasks.incrementAndGet();
+			try {
+				if (failure == null)
+					walk();
+			} catch (Throwable ex) {
+				if (failure == null)
+					failure = ex;
+			} finally {
+				if (pending.decrementAndGet() == 0)
+					finished.countDown();
+			}
+		}
+
+		private void walk()
+		{
+			List<Node> nodes = new ArrayList<Node>();
+			List<Integer> next = new ArrayList<Integer>();
+			List<GobanDelta> deltas = new ArrayList<GobanDelta>();
+
+			start.initMoveNo();
+			start.apply(goban);
+			consumer.position(start, goban);
+			nodes.add(start);
+			next.add(0);
+			deltas.add(null);
+
+			while (!nodes.isEmpty()) {
+				int top = nodes.size() - 1;
+				Node node = nodes.get(top);
+				int i = next.get(top);
+				if (i == 0 && executor != null) {
+					for (int j = 1; j < node.getChildCount(); j++) {
+						Node child = node.getChildAt(j);
+						if (child.getChildCount() > 0)
+							fork(child, goban);
+					}
+				}
+
+				Node child = null;
+				while (i < node.getChildCount()) {
+					Node c = node.getChildAt(i++);
+					if (executor == null || i == 1 || c.getChildCount() == 0) {
+						child = c;
+						break;
+					}
+				}
+				next.set(top, i);
+
+				if (child != null) {
+					child.initMoveNo();
+					goban.beginDelta();
+					child.apply(goban);
+					deltas.add(goban.endDelta());
+					consumer.position(child, goban);
+					nodes.add(child);
+					next.add(0);
+				} else {
+					nodes.remove(top);
+					next.remove(top);
+					GobanDelta delta = deltas.remove(top);
+					if (delta != null)
+						goban.undo(delta);
+				}
+			}
+		}
+	}
+}
@@ -232,14 +232,10 @@ public class Property implements Cloneable
 
 	private static class Factory
 	{
-		private static HashMap<String, PropertyDescriptor> propertyMap = null;
-		Map<Key, Constructor> constructorMap = new HashMap<Key, Constructor>();
+		private final HashMap<String, PropertyDescriptor> propertyMap = new HashMap<String, PropertyDescriptor>();
 
 		Factory()
 		{
-			if (propertyMap == null)
-				propertyMap = new HashMap<String, PropertyDescriptor>();
-
 			logger.fine("Factory()");
 			Properties properties = new Properties();
 
@@ -262,7 +258,6 @@ public class Property implements Cloneable
 			}
 		}
 
-		static Object[] argv = new Object[1];
 		static Class[] argt = new Class[1];
 
 		static {
@@ -291,12 +286,11 @@ public class Property implements Cloneable
 			String className = "";
 			Class propertyClass = null;
 			try {
-				argv[0] = key;
 				propertyClass = getDescriptor(key).getPropertyClass();
 				Constructor c = getDescriptor(key).getConstructor();
 				if (c == null)
 					return new Property(key);
-				return (Property) c.newInstance(argv);
+				return (Property) c.newInstance(key);
 			} catch (Exception e) {
 				if (propertyClass != null) {
 					logger.warning("Couldn't create a "
@@ -313,7 +307,6 @@ public class Property implements Cloneable
 			}
 		}
 
-		static Object[] argv2 = new Object[2];
 		static Class[] argt2 = new Class[2];
 		static {
 			try {
@@ -332,13 +325,12 @@ public class Property implements Cloneable
 			String className = "";
 			Class propertyClass = null;
 			try {
-				argv2[0] = key;
-				argv2[1] = s.substring(1, s.length() - 1);
 				propertyClass = getDescriptor(key).getPropertyClass();
-				logger.fine("Creating property for key " + argv[0] + " "
+				logger.fine("Creating property for key " + key + " "
 						+ argt[0] + " " + propertyClass);
 				Constructor c = propertyClass.getConstructor(argt2);
-				return (Property) c.newInstance(argv2);
+				return (Property) c.newInstance(key, s.substring(1, s
+						.length() - 1));
 			} catch (Exception e) {
 				if (propertyClass != null) {
 					logger.warning("Couldn't create a "
@@ -356,13 +348,19 @@ public class Property implements Cloneable
 		}
 	}
 
-	static Factory factory = null;
+	/**
+	 * Holds the factory, which is created when it is first used. The class
+	 * loader guarantees that this happens only once, also if properties are
+	 * created by several threads.
+	 */
+	private static class FactoryHolder
+	{
+		static final Factory factory = new Factory();
+	}
 
 	private static Factory getFactory()
 	{
-		if (factory == null)
-			factory = new Factory();
-		return factory;
+		return FactoryHolder.factory;
 	}
 
 	static PropertyDescriptor getDescriptor(Key key)
@@ -949,6 +947,9 @@ public class Property implements Cloneable
 	private Value value = null;
 	private Key key = null;
 
+	/** The undecoded value, see {@link #setRawValue}. */
+	private volatile RawValue raw = null;
+
 	/**
 	 * Create a property with a given key. This constructor is protected, use
 	 * 
@@ -972,6 +973,20 @@ public class Property implements Cloneable
 	public void setValue(Value value)
 	{
 		this.value = value;
+		this.raw = null;
+	}
+
+	/**
+	 * Set the undecoded value of the property. It is decoded and passed to
+	 * {@link #setValue(Value)} when the value is first accessed.
+	 * 
+	 * @param raw
+	 *            the undecoded value
+	 */
+	void setRawValue(RawValue raw)
+	{
+		this.value = null;
+		this.raw = raw;
 	}
 
 	/**
@@ -996,12 +1011,31 @@ public class Property implements Cloneable
 	 */
 	public Value getValue()
 	{
+		Value value = value();
 		if (value == null) {
 			logger.warning("Property " + key + ": no value");
 		}
 		return value;
 	}
 
+	private Value value()
+	{
+		if (raw != null)
+			decode();
+		return value;
+	}
+
+	/**
+	 * Decode the raw value. Properties are shared between threads, e.g. by
+	 * the index of a collection, so this is synchronized.
+	 */
+	private synchronized void decode()
+	{
+		RawValue r = raw;
+		if (r != null)
+			setValue(r.decode());
+	}
+
 	/**
 	 * Get the key of this proprty.
 	 * 
@@ -1024,6 +1058,7 @@ public class Property implements Cloneable
 
 	public String toString()
 	{
+		Value value = value();
 		String s = key + (value != null ? value.toString() : "<null>");
 		return s;
 	}
@@ -1031,6 +1066,7 @@ public class Property implements Cloneable
 	public void write(PrintWriter out)
 	{
 		out.print(key.toString());
+		Value value = value();
 		if (value != null)
 			value.write(out);
 		else
@@ -1040,7 +1076,10 @@ public class Property implements Cloneable
 	public Property clone()
 	{
 		Property p = createProperty(key);
-		if (value != null)
+		RawValue r = raw;
+		if (r != null)
+			p.setRawValue(r);
+		else if (value != null)
 			p.setValue(value.clone());
 		return p;
 	}
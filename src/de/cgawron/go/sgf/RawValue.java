@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * The undecoded value of a text property: the bounds of its raw values in the
+ * buffer the property was read from. The buffer is shared by all properties
+ * read from it and is never modified. A RawValue is immutable.
+ * <p>
+ * The value is decoded with the charset of its game tree when it is
+ * accessed, so a <code>CA</code> property following the value is taken into
+ * account.
+ *
+ * @author Christian Gawron
+ */
+final class RawValue
+{
+	/**
+	 * The buffer and the charset shared by the raw values of a game tree.
+	 */
+	static final class Source
+	{
+		private final ByteBuffer buffer;
+		private volatile Charset charset;
+
+		Source(ByteBuffer buffer, Charset charset)
+		{
+			this.buffer = buffer;
+			this.charset = charset;
+		}
+
+		/**
+		 * Set the charset of the game tree, e.g. when its <code>CA</code>
+		 * property is read.
+		 *
+		 * @param charset
+		 *            - the new charset
+		 */
+		void setCharset(Charset charset)
+		{
+			this.charset = charset;
+		}
+	}
+
+	private final Source source;
+	private final int type;
+
+	/** The start and end offset of each raw value. */
+	private final int[] bounds;
+
+	RawValue(Source source, int type, int[] bounds)
+	{
+		this.source = source;
+		this.type = type;
+		this.bounds = bounds;
+	}
+
+	/**
+	 * Decode the value.
+	 *
+	 * @return a new {@link Value.ValueList}
+	 */
+	Value decode()
+	{
+		Charset charset = source.charset;
+		Value.ValueList list = AbstractValue.createValueList(decode(charset,
+				0));
+		for (int i = 2; i < bounds.length; i += 2)
+			list.add(decode(charset, i));
+		return list;
+	}
+
+	private Value decode(Charset charset, int i)
+	{
+		return SGFParser.createTextValue(type, SGFParser.decode(
+				source.buffer, charset, bounds[i], bounds[i + 1]));
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import java.util.List;
+
+/**
+ * Receives the structure of an SGF file from {@link SGFParser#parse(SGFHandler)}
+ * without building a {@link GameTree}. The callbacks are made in the order of
+ * the input: each game tree and each variation is enclosed by
+ * {@link #startGameTree} and {@link #endGameTree}, each node by
+ * {@link #startNode} and {@link #endNode}, and the properties of a node are
+ * reported between these two calls.
+ *
+ * @author Christian Gawron
+ */
+public interface SGFHandler
+{
+	/** A game tree or a variation starts. */
+	void startGameTree();
+
+	/** A node starts. */
+	void startNode();
+
+	/**
+	 * A property of the current node.
+	 *
+	 * @param key
+	 *            - the key of the property
+	 * @param values
+	 *            - the raw values, i.e. the texts between the brackets with
+	 *            the escapes still in place, see
+	 *            {@link SGFParser#unescape(String, boolean)}. The list is
+	 *            reused by the parser and only valid during the call.
+	 */
+	void property(Property.Key key, List<String> values);
+
+	/** The current node ends. */
+	void endNode();
+
+	/** The current game tree or variation ends. */
+	void endGameTree();
+}
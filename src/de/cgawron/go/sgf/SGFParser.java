@@ -0,0 +1,966 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.util.MiscEncodingReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hand-written parser for SGF files. The parser reads the characters of
+ * the input in blocks without intermediate tokens and either builds the
+ * {@link Node} and {@link Property} model or reports the game trees, nodes
+ * and raw property values to an {@link SGFHandler}. Game trees are parsed
+ * iteratively, so deeply nested variations don't exhaust the call stack.
+ * <p>
+ * All state is kept in the parser instance, so different files can be parsed
+ * concurrently by different parsers. A parser must not be shared between
+ * threads.
+ * <p>
+ * The input is either read from a {@link Reader} or, without decoding it to
+ * characters, from a {@link ByteBuffer}, e.g. a memory mapped file. In the
+ * latter case only property values are decoded, when they are accessed, and
+ * values containing only ASCII characters are copied without a decoder.
+ * Charsets like Shift_JIS, GBK or Big5 use the bytes of '\' and ']' in
+ * multi-byte characters; with such a charset the bytes of a value are
+ * stepped over by decoding them character by character.
+ * <p>
+ * The charset given by the <code>CA</code> property is used for the rest of
+ * the input if it is read from a buffer or by a {@link MiscEncodingReader}.
+ * Text values read from a buffer are decoded with the last charset given in
+ * their game tree, even if the value precedes the <code>CA</code> property.
+ *
+ * @author Christian Gawron
+ */
+public class SGFParser implements InputPosition
+{
+	private static Logger logger = Logger.getLogger(SGFParser.class.getName());
+
+	private static final int EOF = -1;
+
+	/** How the values of a property are read. */
+	private static final int MOVE = 0;
+	private static final int POINTS = 1;
+	private static final int LABEL = 2;
+	private static final int TEXT = 3;
+	private static final int NUMBER = 4;
+	private static final int UNKNOWN = 5;
+
+	/** The flags of an open game tree. */
+	private static final int NODES = 1;
+	private static final int VARIATIONS = 2;
+
+	/** Files larger than this are memory mapped. */
+	private static final int MAP_THRESHOLD = 64 * 1024;
+
+	private final Reader reader;
+	private final char[] buffer;
+	private final ByteBuffer bytes;
+	private Charset charset;
+
+	/**
+	 * Decodes values while they are lexed if the charset is not
+	 * {@link #isAsciiTransparent ASCII transparent}, otherwise
+	 * <code>null</code>.
+	 */
+	private CharsetDecoder decoder;
+	private int position;
+	private int limit;
+
+	/** The number of characters read before the buffer. */
+	private int offset;
+	private int line = 1;
+	private int lineStart;
+	private boolean atEnd;
+	private boolean eof;
+
+	private final StringBuilder text = new StringBuilder();
+	private final List<String> values = new ArrayList<String>();
+	private final RawValues rawValues = new RawValues();
+
+	/** The source of the raw values of the current game tree. */
+	private RawValue.Source source;
+	private final Map<String, Property.Key> keys = new HashMap<String, Property.Key>();
+	private int[] trees = new int[16];
+	private boolean stopped;
+
+	/**
+	 * The raw values of a property read from a buffer. The values are decoded
+	 * when they are accessed.
+	 */
+	private class RawValues extends AbstractList<String>
+	{
+		private int[] bounds = new int[8];
+		private String[] decoded = new String[4];
+		private int size;
+
+		void reset()
+		{
+			size = 0;
+		}
+
+		void add(int start, int end)
+		{
+			if (size == decoded.length) {
+				int[] b = new int[4 * size];
+				System.arraycopy(bounds, 0, b, 0, 2 * size);
+				bounds = b;
+				String[] d = new String[2 * size];
+				System.arraycopy(decoded, 0, d, 0, size);
+				decoded = d;
+			}
+			bounds[2 * size] = start;
+			bounds[2 * size + 1] = end;
+			decoded[size++] = null;
+		}
+
+		@Override
+		public int size()
+		{
+			return size;
+		}
+
+		@Override
+		public String get(int index)
+		{
+			if (index < 0 || index >= size)
+				throw new IndexOutOfBoundsException("index " + index
+						+ ", size " + size);
+			if (decoded[index] == null)
+				decoded[index] = decode(bounds[2 * index],
+						bounds[2 * index + 1]);
+			return decoded[index];
+		}
+
+		/**
+		 * Keep the values undecoded; they are decoded with the charset of the
+		 * current game tree.
+		 */
+		RawValue toRawValue(int type)
+		{
+			int[] b = new int[2 * size];
+			System.arraycopy(bounds, 0, b, 0, b.length);
+			return new RawValue(source, type, b);
+		}
+	}
+
+	/**
+	 * Builds the {@link Node} model, see {@link SGFParser#parse()}.
+	 */
+	private class TreeBuilder implements SGFHandler
+	{
+		/** An open game tree. */
+		private class Frame
+		{
+			Sequence sequence;
+			List<Node> variations = new ArrayList<Node>();
+		}
+
+		private final List<Frame> stack = new ArrayList<Frame>();
+		private PropertyList properties;
+		private CollectionRoot collection;
+		Node result;
+
+		public void startGameTree()
+		{
+			stack.add(new Frame());
+		}
+
+		public void startNode()
+		{
+			properties = new PropertyList();
+		}
+
+		public void property(Property.Key key, List<String> values)
+		{
+			properties.add(createProperty(key, values));
+		}
+
+		public void endNode()
+		{
+			Frame frame = stack.get(stack.size() - 1);
+			if (frame.sequence == null)
+				frame.sequence = new Sequence(properties);
+			else
+				frame.sequence.append(new Node(properties));
+			properties = null;
+		}
+
+		public void endGameTree()
+		{
+			Frame frame = stack.remove(stack.size() - 1);
+			frame.sequence.addAll(frame.variations);
+			if (!stack.isEmpty())
+				stack.get(stack.size() - 1).variations.add(frame.sequence);
+			else if (result == null)
+				result = frame.sequence;
+			else {
+				if (collection == null) {
+					collection = new CollectionRoot(new GameTree(result));
+					result = collection;
+				}
+				collection.add(new GameTree(frame.sequence).getRoot());
+			}
+		}
+	}
+
+	/**
+	 * Create a parser.
+	 *
+	 * @param reader
+	 *            - the input
+	 */
+	public SGFParser(Reader reader)
+	{
+		this.reader = reader;
+		this.buffer = new char[8192];
+		this.bytes = null;
+	}
+
+	/**
+	 * Create a parser reading the remaining bytes of a buffer. Values are
+	 * decoded with the default charset unless a <code>CA</code> property
+	 * specifies another one.
+	 *
+	 * @param bytes
+	 *            - the input; its position is not changed
+	 */
+	public SGFParser(ByteBuffer bytes)
+	{
+		this.reader = null;
+		this.buffer = null;
+		this.bytes = bytes;
+		useCharset(Charset.defaultCharset());
+		position = lineStart = bytes.position();
+		limit = bytes.limit();
+		atEnd = true;
+	}
+
+	/**
+	 * Create a parser reading a file. Large files are memory mapped, small
+	 * files are read into a buffer.
+	 *
+	 * @param file
+	 *            - the input
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public SGFParser(File file) throws IOException
+	{
+		this(read(file));
+	}
+
+	/**
+	 * Create a parser reading a stream. The stream is read into a buffer, so
+	 * the input is decoded in the same way as a file.
+	 *
+	 * @param in
+	 *            - the input; it is read to its end but not closed
+	 * @throws IOException
+	 *             if the stream can't be read
+	 */
+	public SGFParser(InputStream in) throws IOException
+	{
+		this(read(in));
+	}
+
+	private static ByteBuffer read(InputStream in) throws IOException
+	{
+		byte[] b = new byte[8192];
+		int length = 0;
+		int n;
+		while ((n = in.read(b, length, b.length - length)) >= 0) {
+			length += n;
+			if (length == b.length) {
+				byte[] c = new byte[2 * b.length];
+				System.arraycopy(b, 0, c, 0, length);
+				b = c;
+			}
+		}
+		return ByteBuffer.wrap(b, 0, length);
+	}
+
+	private static ByteBuffer read(File file) throws IOException
+	{
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			if (size > MAP_THRESHOLD)
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+				;
+			buffer.flip();
+			return buffer;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Parse the input. If the input contains a single game tree, its first
+	 * node is returned; the following nodes and variations are its
+	 * descendants. If the input is a collection of game trees, a
+	 * {@link CollectionRoot} is returned which has the roots of the games as
+	 * children.
+	 *
+	 * @return the first node or the collection
+	 * @throws IOException
+	 *             if reading the input fails
+	 * @throws ParseError
+	 *             if the input is not a valid SGF file
+	 */
+	public Node parse() throws IOException
+	{
+		TreeBuilder builder = new TreeBuilder();
+		parse(builder);
+		return builder.result;
+	}
+
+	/**
+	 * Parse the properties of the root node of the first game tree. The
+	 * input is read only up to the end of this node.
+	 *
+	 * @return the properties of the root node
+	 * @throws IOException
+	 *             if reading the input fails
+	 * @throws ParseError
+	 *             if the input does not start with a valid SGF node
+	 */
+	public PropertyList parseRoot() throws IOException
+	{
+		final PropertyList properties = new PropertyList();
+		parse(new SGFHandler() {
+			public void startGameTree()
+			{
+			}
+
+			public void startNode()
+			{
+			}
+
+			public void property(Property.Key key, List<String> values)
+			{
+				properties.add(createProperty(key, values));
+			}
+
+			public void endNode()
+			{
+				stop();
+			}
+
+			public void endGameTree()
+			{
+			}
+		});
+		return properties;
+	}
+
+	/**
+	 * Parse the input and report its structure to a handler. No nodes,
+	 * properties or values are created.
+	 *
+	 * @param handler
+	 *            - receives the game trees, nodes and properties in the order
+	 *            of the input
+	 * @throws IOException
+	 *             if reading the input fails
+	 * @throws ParseError
+	 *             if the input is not a valid SGF file
+	 */
+	public void parse(SGFHandler handler) throws IOException
+	{
+		boolean found = false;
+		stopped = false;
+		while (!stopped && skipToGameTree()) {
+			parseGameTree(handler);
+			found = true;
+		}
+		if (!found)
+			throw new ParseError("No game tree found", this, "end of file");
+
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("parse: " + (offset + position) + " characters");
+	}
+
+	/**
+	 * Stop parsing. This method is meant to be called by a handler;
+	 * {@link #parse(SGFHandler)} returns after the current callback without
+	 * reading further input.
+	 */
+	public void stop()
+	{
+		stopped = true;
+	}
+
+	/**
+	 * Remove the escapes from a raw value as passed to
+	 * {@link SGFHandler#property}.
+	 *
+	 * @param raw
+	 *            - the raw value
+	 * @param text
+	 *            - if <code>true</code>, the value is treated as text: line
+	 *            breaks are converted to '\n' and escaped line breaks are
+	 *            removed
+	 * @return the value
+	 */
+	public static String unescape(String raw, boolean text)
+	{
+		if (raw.indexOf('\\') < 0 && (!text || raw.indexOf('\r') < 0))
+			return raw;
+
+		StringBuilder sb = new StringBuilder(raw.length());
+		int n = raw.length();
+		for (int i = 0; i < n; i++) {
+			char c = raw.charAt(i);
+			boolean escaped = c == '\\' && i + 1 < n;
+			if (escaped)
+				c = raw.charAt(++i);
+			if (text && (c == '\n' || c == '\r')) {
+				// skip the second character of "\r\n" or "\n\r"
+				if (i + 1 < n && raw.charAt(i + 1) != c
+						&& (raw.charAt(i + 1) == '\n' || raw.charAt(i + 1) == '\r'))
+					i++;
+				if (!escaped)
+					sb.append('\n');
+			} else
+				sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	public int getLine()
+	{
+		return line;
+	}
+
+	public int getColumn()
+	{
+		return offset + position - lineStart + 1;
+	}
+
+	public String getCurrentLine()
+	{
+		if (bytes != null) {
+			int end = position;
+			while (end < limit && bytes.get(end) != '\n'
+					&& bytes.get(end) != '\r')
+				end++;
+			return decode(Math.min(lineStart, end), end);
+		}
+		int begin = Math.max(0, Math.min(position, lineStart - offset));
+		int end = position;
+		while (end < limit && buffer[end] != '\n' && buffer[end] != '\r')
+			end++;
+		return new String(buffer, begin, end - begin);
+	}
+
+	/**
+	 * Skip to the next game tree, i.e. to a '(' followed by a ';'. Text
+	 * before and between game trees is ignored.
+	 *
+	 * @return <code>false</code> if the end of the input is reached
+	 */
+	private boolean skipToGameTree() throws IOException
+	{
+		int c;
+		while ((c = read()) != EOF) {
+			if (c == '(') {
+				c = skipWhitespace();
+				unread();
+				if (c == ';')
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parse a game tree. The opening '(' has been read.
+	 */
+	private void parseGameTree(SGFHandler handler) throws IOException
+	{
+		int depth = 0;
+		if (bytes != null)
+			source = new RawValue.Source(bytes, charset);
+		handler.startGameTree();
+		trees[depth++] = 0;
+		while (depth > 0 && !stopped) {
+			int c = skipWhitespace();
+			switch (c) {
+			case ';':
+				if ((trees[depth - 1] & VARIATIONS) != 0)
+					throw error("Node after variations", c);
+				trees[depth - 1] |= NODES;
+				handler.startNode();
+				parseProperties(handler);
+				if (!stopped)
+					handler.endNode();
+				break;
+
+			case '(':
+				if ((trees[depth - 1] & NODES) == 0)
+					throw error("Game tree without nodes", c);
+				trees[depth - 1] |= VARIATIONS;
+				if (depth == trees.length) {
+					int[] t = new int[2 * depth];
+					System.arraycopy(trees, 0, t, 0, depth);
+					trees = t;
+				}
+				trees[depth++] = 0;
+				handler.startGameTree();
+				break;
+
+			case ')':
+				if ((trees[depth - 1] & NODES) == 0)
+					throw error("Game tree without nodes", c);
+				depth--;
+				handler.endGameTree();
+				break;
+
+			case EOF:
+				throw error("Unexpected end of file", c);
+
+			default:
+				throw error("Syntax error", c);
+			}
+		}
+	}
+
+	/**
+	 * Parse the properties of a node. The ';' has been read.
+	 */
+	private void parseProperties(SGFHandler handler) throws IOException
+	{
+		int c;
+		while (!stopped) {
+			if (!isLetter(c = skipWhitespace())) {
+				unread();
+				return;
+			}
+			text.setLength(0);
+			do {
+				text.append((char) c);
+			} while (isLetter(c = read()));
+			if (c != '[')
+				c = skipWhitespace();
+			if (c != '[')
+				throw error("Property " + text + " without value", c);
+
+			String name = text.toString();
+			Property.Key key = keys.get(name);
+			if (key == null) {
+				key = new Property.Key(name);
+				if (key.toString().length() == 0)
+					throw error("Illegal property name " + name, c);
+				keys.put(name, key);
+			}
+
+			List<String> list;
+			if (bytes == null) {
+				values.clear();
+				do {
+					values.add(readValue());
+				} while (skipWhitespace() == '[');
+				list = values;
+			} else {
+				rawValues.reset();
+				do {
+					int start = position;
+					skipValue();
+					rawValues.add(start, position - 1);
+				} while (skipWhitespace() == '[');
+				list = rawValues;
+			}
+			unread();
+
+			handler.property(key, list);
+			if (key.equals(Property.CHARACTER_SET))
+				setCharset(unescape(list.get(0), true).trim());
+		}
+	}
+
+	/**
+	 * Read a raw value up to the closing ']'. The '[' has been read.
+	 */
+	private String readValue() throws IOException
+	{
+		text.setLength(0);
+		int c;
+		while ((c = read()) != ']') {
+			if (c == '\\') {
+				text.append('\\');
+				c = read();
+			}
+			if (c == EOF)
+				throw error("Unexpected end of file", c);
+			text.append((char) c);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Skip a raw value up to the closing ']'. The '[' has been read.
+	 */
+	private void skipValue() throws IOException
+	{
+		if (decoder != null) {
+			skipDecodedValue();
+			return;
+		}
+		int c;
+		while ((c = read()) != ']') {
+			if (c == '\\')
+				c = read();
+			if (c == EOF)
+				throw error("Unexpected end of file", c);
+		}
+	}
+
+	/**
+	 * Skip a raw value, decoding it character by character, so bytes of
+	 * multi-byte characters are not taken for '\\' or ']'.
+	 */
+	private void skipDecodedValue()
+	{
+		ByteBuffer in = bytes.duplicate();
+		in.position(position);
+		CharBuffer out = CharBuffer.allocate(2);
+		decoder.reset();
+		boolean escaped = false;
+		for (;;) {
+			out.clear();
+			out.limit(1);
+			decoder.decode(in, out, false);
+			if (out.position() == 0 && in.hasRemaining()) {
+				// a character encoded as a surrogate pair
+				out.limit(2);
+				decoder.decode(in, out, false);
+			}
+			if (out.position() == 0) {
+				position = limit;
+				eof = true;
+				throw error("Unexpected end of file", EOF);
+			}
+			position = in.position();
+			char c = out.get(0);
+			if (c == '\n') {
+				line++;
+				lineStart = position;
+			}
+			if (escaped)
+				escaped = false;
+			else if (c == '\\')
+				escaped = true;
+			else if (c == ']')
+				return;
+		}
+	}
+
+	private String decode(int start, int end)
+	{
+		return decode(bytes, charset, start, end);
+	}
+
+	/**
+	 * Decode a part of a buffer. ASCII text is copied directly if the charset
+	 * is ASCII transparent.
+	 */
+	static String decode(ByteBuffer bytes, Charset charset, int start,
+			int end)
+	{
+		if (!isAsciiTransparent(charset)) {
+			ByteBuffer slice = bytes.duplicate();
+			slice.limit(end);
+			slice.position(start);
+			return charset.decode(slice).toString();
+		}
+		char[] chars = new char[end - start];
+		for (int i = start; i < end; i++) {
+			byte b = bytes.get(i);
+			if (b < 0) {
+				ByteBuffer slice = bytes.duplicate();
+				slice.limit(end);
+				slice.position(start);
+				return charset.decode(slice).toString();
+			}
+			chars[i - start] = (char) b;
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Create a property from its raw values. Text values read from a buffer
+	 * are decoded when the value of the property is accessed.
+	 */
+	private Property createProperty(Property.Key key, List<String> values)
+	{
+		Property property = Property.createProperty(key);
+		int type = getType(property);
+		if (values == rawValues && (type == TEXT || type == UNKNOWN)) {
+			property.setRawValue(rawValues.toRawValue(type));
+			return property;
+		}
+		Value.ValueList list = AbstractValue.createValueList(createValue(type,
+				values.get(0)));
+		for (int i = 1; i < values.size(); i++)
+			list.add(createValue(type, values.get(i)));
+		property.setValue(list);
+		return property;
+	}
+
+	/**
+	 * Create the value of a property from its raw value.
+	 */
+	private Value createValue(int type, String raw)
+	{
+		if (type == TEXT || type == UNKNOWN)
+			return createTextValue(type, raw);
+
+		String s = unescape(raw, false);
+		switch (type) {
+		case MOVE:
+			s = s.trim();
+			if (s.length() == 0)
+				return AbstractValue.createValue(null);
+			else if (s.length() == 2)
+				return AbstractValue.createPoint(s);
+			throw error("Illegal move [" + s + "]", ']');
+
+		case POINTS:
+			s = s.trim();
+			if (s.length() == 0 || s.length() == 2
+					|| (s.length() == 5 && s.charAt(2) == ':'))
+				return AbstractValue.createPointList(s);
+			throw error("Illegal point [" + s + "]", ']');
+
+		case LABEL:
+			if (s.length() < 3 || s.charAt(2) != ':')
+				throw error("Illegal label [" + s + "]", ']');
+			return AbstractValue.createLabel(s.substring(0, 2), s
+					.substring(3));
+
+		case NUMBER:
+			s = s.trim();
+			try {
+				if (s.startsWith("+"))
+					s = s.substring(1);
+				return AbstractValue.createValue(Integer.valueOf(s));
+			} catch (NumberFormatException ex) {
+				throw error("Illegal number [" + s + "]", ']');
+			}
+
+		default:
+			throw new IllegalArgumentException("type " + type);
+		}
+	}
+
+	/**
+	 * Create the value of a text property or a property of unknown type from
+	 * its raw value.
+	 */
+	static Value createTextValue(int type, String raw)
+	{
+		String s = unescape(raw, true);
+		switch (type) {
+		case TEXT:
+			return AbstractValue.createValue(s);
+
+		default:
+			s = s.trim();
+			if (isPoint(s, 0)
+					&& (s.length() == 2 || (s.length() == 5
+							&& s.charAt(2) == ':' && isPoint(s, 3))))
+				return AbstractValue.createPointList(s);
+			return AbstractValue.createValue(s);
+		}
+	}
+
+	private static int getType(Property property)
+	{
+		if (property instanceof Property.Move)
+			return MOVE;
+		else if (property instanceof Property.AddStones)
+			return POINTS;
+		else if (property instanceof Property.Label)
+			return LABEL;
+		else if (property instanceof Property.Markup)
+			return POINTS;
+		else if (property instanceof Property.View)
+			return POINTS;
+		else if (property instanceof Property.Text)
+			return TEXT;
+		else if (property instanceof Property.Charset)
+			return TEXT;
+		else if (property instanceof Property.Number)
+			return NUMBER;
+		else if (property instanceof Property.GameInfo)
+			return TEXT;
+		else {
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("Unknown property: " + property.getKey());
+			return UNKNOWN;
+		}
+	}
+
+	/**
+	 * Switch the charset of the input. The characters after the current
+	 * position are read again using the new charset.
+	 */
+	private void setCharset(String charset)
+	{
+		if (bytes != null) {
+			try {
+				useCharset(Charset.forName(charset));
+				source.setCharset(this.charset);
+			} catch (IllegalArgumentException ex) {
+				logger.warning("Unknown charset " + charset + ": " + ex);
+			}
+			return;
+		}
+		if (!(reader instanceof MiscEncodingReader))
+			return;
+		try {
+			if (((MiscEncodingReader) reader).setCharset(charset, offset
+					+ position)) {
+				offset += position;
+				position = limit = 0;
+			}
+		} catch (IOException ex) {
+			logger.warning("Can't switch to charset " + charset + ": " + ex);
+		} catch (IllegalArgumentException ex) {
+			logger.warning("Unknown charset " + charset + ": " + ex);
+		}
+	}
+
+	private void useCharset(Charset charset)
+	{
+		this.charset = charset;
+		if (isAsciiTransparent(charset))
+			decoder = null;
+		else
+			decoder = charset.newDecoder().onMalformedInput(
+					CodingErrorAction.REPLACE).onUnmappableCharacter(
+					CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Check if a byte below 0x80 always encodes the ASCII character of the
+	 * same code in a charset, i.e. it is never part of a multi-byte
+	 * character.
+	 */
+	static boolean isAsciiTransparent(Charset charset)
+	{
+		String name = charset.name();
+		return name.equals("UTF-8") || name.equals("US-ASCII")
+				|| name.startsWith("ISO-8859-") || name.startsWith("windows-125")
+				|| name.startsWith("EUC-") || name.startsWith("KOI8-");
+	}
+
+	private int read() throws IOException
+	{
+		if (position == limit && !fill()) {
+			eof = true;
+			return EOF;
+		}
+		eof = false;
+		int c = bytes == null ? buffer[position++]
+				: bytes.get(position++) & 0xff;
+		if (c == '\n') {
+			line++;
+			lineStart = offset + position;
+		}
+		return c;
+	}
+
+	/**
+	 * Step back one character. Must only be called once after {@link #read}
+	 * or {@link #skipWhitespace}; does nothing at the end of the input.
+	 */
+	private void unread()
+	{
+		if (eof)
+			return;
+		if ((bytes == null ? buffer[--position] : bytes.get(--position)) == '\n')
+			line--;
+	}
+
+	private int skipWhitespace() throws IOException
+	{
+		int c;
+		do {
+			c = read();
+		} while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+		return c;
+	}
+
+	private boolean fill() throws IOException
+	{
+		if (atEnd)
+			return false;
+		int n = reader.read(buffer, 0, buffer.length);
+		if (n <= 0) {
+			// keep the last block for getCurrentLine()
+			atEnd = true;
+			return false;
+		}
+		offset += limit;
+		position = 0;
+		limit = n;
+		return true;
+	}
+
+	private static boolean isLetter(int c)
+	{
+		return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+	}
+
+	private static boolean isPoint(String s, int i)
+	{
+		return s.length() >= i + 2 && s.charAt(i) >= 'a'
+				&& s.charAt(i) <= 'z' && s.charAt(i + 1) >= 'a'
+				&& s.charAt(i + 1) <= 'z';
+	}
+
+	private ParseError error(String message, int c)
+	{
+		logger.warning(message + " at line " + getLine() + ", column "
+				+ getColumn());
+		return new ParseError(message, this, c == EOF ? "end of file" : "'"
+				+ (char) c + "'");
+	}
+}
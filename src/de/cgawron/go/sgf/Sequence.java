@@ -35,11 +35,19 @@ public class Sequence extends Node
 		len = 1;
 	}
 
+	Sequence(PropertyList pl)
+	{
+		super(pl);
+		first = this;
+		last = this;
+		len = 1;
+	}
+
 	public boolean addAll(Collection<Node> c)
 	{
 		Iterator<Node> i = c.iterator();
 		while (i.hasNext()) {
-			last.add(i.next());
+			last.addParsed(i.next());
 		}
 		return true;
 	}
@@ -47,10 +55,7 @@ public class Sequence extends Node
 	public boolean append(Node o)
 	{
 		boolean b = false;
-		if (last == this)
-			b = super.add(o);
-		else
-			b = last.add(o);
+		b = last.addParsed(o);
 		last = (Node) o;
 		len++;
 		return b;
@@ -20,9 +20,11 @@ package de.cgawron.go.sgf;
 
 import de.cgawron.go.Goban;
 import de.cgawron.go.Goban.BoardType;
+import de.cgawron.go.GobanDelta;
 import de.cgawron.go.GobanEvent;
 import de.cgawron.go.GobanListener;
 import de.cgawron.go.Point;
+import de.cgawron.go.Scorer;
 import de.cgawron.go.SimpleGoban;
 
 import java.beans.PropertyChangeEvent;
@@ -46,6 +48,33 @@ public class SimpleMarkupModel extends SimpleGoban implements MarkupModel,
 	private Map toolTipMap = new TreeMap();
 	private int moveNo = 1;
 
+	/**
+	 * A {@link GobanDelta} which also records the markup, the region, the
+	 * conflicts and the move number.
+	 */
+	private static class MarkupDelta extends GobanDelta
+	{
+		private final List<Point> points = new ArrayList<Point>();
+		private final List<MarkupModel.Markup> markup = new ArrayList<MarkupModel.Markup>();
+		private final Region region;
+		private final SortedSet<Conflict> conflicts;
+		private final int moveNo;
+
+		MarkupDelta(SimpleMarkupModel model, Point p, BoardType color)
+		{
+			super(model, p, color);
+			region = model.region;
+			conflicts = new TreeSet<Conflict>(model.conflicts);
+			moveNo = model.moveNo;
+		}
+
+		void save(int x, int y, MarkupModel.Markup m)
+		{
+			points.add(Point.of(x, y));
+			markup.add(m);
+		}
+	}
+
 	/** SimpleMarkupModel constructor comment. */
 	public SimpleMarkupModel()
 	{
@@ -134,7 +163,8 @@ public class SimpleMarkupModel extends SimpleGoban implements MarkupModel,
 		short j;
 
 		for (i = 0; i < size; i++)
-			for (j = 0; j < size; j++)
+			for (j = 0; j < size; j++) {
+				saveMarkup(i, j);
 				if (getStone(i, j) != BoardType.EMPTY) {
 					if (logger.isLoggable(Level.FINE))
 						logger.fine("reset markup: [" + i + ", " + j + "]: "
@@ -142,6 +172,7 @@ public class SimpleMarkupModel extends SimpleGoban implements MarkupModel,
 					markup[i][j] = new Stone(getStone(i, j));
 				} else
 					markup[i][j] = null;
+			}
 		setRegion(null);
 		conflicts.clear();
 		fireModelChanged();
@@ -194,6 +225,7 @@ public class SimpleMarkupModel extends SimpleGoban implements MarkupModel,
 		if (x < 0 || y < 0 || x >= getBoardSize() || y >= getBoardSize())
 			return;
 
+		saveMarkup(x, y);
 		if (markup[x][y] == null
 				|| m == null
 				/*
@@ -206,7 +238,7 @@ public class SimpleMarkupModel extends SimpleGoban implements MarkupModel,
 			markup[x][y] = m;
 			if (m == null)
 				assert getStone(x, y) == BoardType.EMPTY : "Setting null Markup on non-empty field";
-			fireModelChanged();
+			fireModelChanged(x, y);
 		} else if (!m.equals(markup[x][y])) {
 			if (markup[x][y] instanceof MarkupModel.Stone
 					&& !(markup[x][y] instanceof MarkupModel.ConflictMark))
@@ -220,6 +252,42 @@ public class SimpleMarkupModel extends SimpleGoban implements MarkupModel,
 		}
 	}
 
+	/** Save the markup at (x, y) in the delta which is recorded. */
+	private void saveMarkup(int x, int y)
+	{
+		GobanDelta delta = getDelta();
+		if (delta instanceof MarkupDelta)
+			((MarkupDelta) delta).save(x, y, markup[x][y]);
+	}
+
+	@Override
+	protected GobanDelta createDelta(Point p, BoardType color)
+	{
+		return new MarkupDelta(this, p, color);
+	}
+
+	@Override
+	public void undo(GobanDelta delta)
+	{
+		if (delta instanceof MarkupDelta) {
+			MarkupDelta md = (MarkupDelta) delta;
+			for (int i = md.points.size() - 1; i >= 0; i--) {
+				Point p = md.points.get(i);
+				markup[p.getX()][p.getY()] = md.markup.get(i);
+			}
+			if (region != md.region) {
+				if (region != null)
+					region.removePropertyChangeListener(this);
+				region = md.region;
+				if (region != null)
+					region.addPropertyChangeListener(this);
+			}
+			conflicts = new TreeSet<Conflict>(md.conflicts);
+			moveNo = md.moveNo;
+		}
+		super.undo(delta);
+	}
+
 	MarkupModel.Markup getConflictLabel(MarkupModel.Stone s)
 	{
 		Iterator<Conflict> it = conflicts.iterator();
@@ -263,6 +331,25 @@ public class SimpleMarkupModel extends SimpleGoban implements MarkupModel,
 		setMarkup(x, y, new Move(color, moveNo++));
 	}
 
+	public void setTerritory(Scorer.Score score)
+	{
+		beginUpdate();
+		try {
+			short i;
+			short j;
+			for (i = 0; i < size; i++)
+				for (j = 0; j < size; j++) {
+					BoardType owner = score.getOwner(i, j);
+					if (owner == BoardType.BLACK)
+						setMarkup(i, j, new BlackTerritory());
+					else if (owner == BoardType.WHITE)
+						setMarkup(i, j, new WhiteTerritory());
+				}
+		} finally {
+			endUpdate();
+		}
+	}
+
 	public Region getRegion()
 	{
 		return region;
@@ -357,6 +444,12 @@ public class SimpleMarkupModel extends SimpleGoban implements MarkupModel,
 		toolTipMap.put(p, s);
 	}
 
+	@Override
+	public int estimateSize()
+	{
+		return super.estimateSize() + size * (16 + 4 * size);
+	}
+
 	public Goban clone() throws CloneNotSupportedException
 	{
 		Goban model = new SimpleMarkupModel(this);
@@ -1 +1 @@
-/** * * (C) 2010 Christian Gawron. All rights reserved. * * Licensed under the Apache License, Version 2.0 (the "License"); * you may not use this file except in compliance with the License. * You may obtain a copy of the License at * *      http://www.apache.org/licenses/LICENSE-2.0 * * Unless required by applicable law or agreed to in writing, software * distributed under the License is distributed on an "AS IS" BASIS, * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. * See the License for the specific language governing permissions and * limitations under the License. *  */package de.cgawron.go.sgf;import de.cgawron.go.*;/** A SimpleRegion is a rectangular Region */public class SimpleRegion extends AbstractRegion{	private short minX, minY, maxX, maxY;	public SimpleRegion(Value.PointList pointList)	{		minX = (short) pointList.getMinX();		maxX = (short) (pointList.getMaxX() + 1);		minY = (short) pointList.getMinY();		maxY = (short) (pointList.getMaxY() + 1);	}	public SimpleRegion(short minX, short minY, short maxX, short maxY)	{		this.minX = minX;		this.minY = minY;		this.maxX = maxX;		this.maxY = maxY;	}	public Value.PointList getPointList()	{		Value.PointList pl = (Value.PointList) AbstractValue.createPointList();		short x, y;		for (x = minX; x <= maxX; x++)			for (y = minY; y <= maxY; y++)				pl.add(new Point(x, y));		return pl;	}	public void set(short xMin, short yMin, short xMax, short yMax)	{		minX = xMin;		maxX = xMax;		minY = yMin;		maxY = yMax;		firePropertyChange(null, null, null);	}}
\ No newline at end of file
+/** * * (C) 2010 Christian Gawron. All rights reserved. * * Licensed under the Apache License, Version 2.0 (the "License"); * you may not use this file except in compliance with the License. * You may obtain a copy of the License at * *      http://www.apache.org/licenses/LICENSE-2.0 * * Unless required by applicable law or agreed to in writing, software * distributed under the License is distributed on an "AS IS" BASIS, * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. * See the License for the specific language governing permissions and * limitations under the License. *  */package de.cgawron.go.sgf;import de.cgawron.go.*;/** A SimpleRegion is a rectangular Region */public class SimpleRegion extends AbstractRegion{	private short minX, minY, maxX, maxY;	public SimpleRegion(Value.PointList pointList)	{		minX = (short) pointList.getMinX();		maxX = (short) (pointList.getMaxX() + 1);		minY = (short) pointList.getMinY();		maxY = (short) (pointList.getMaxY() + 1);	}	public SimpleRegion(short minX, short minY, short maxX, short maxY)	{		this.minX = minX;		this.minY = minY;		this.maxX = maxX;		this.maxY = maxY;	}	public Value.PointList getPointList()	{		Value.PointList pl = (Value.PointList) AbstractValue.createPointList();		short x, y;		for (x = minX; x <= maxX; x++)			for (y = minY; y <= maxY; y++)				pl.add(Point.of(x, y));		return pl;	}	public void set(short xMin, short yMin, short xMax, short yMax)	{		minX = xMin;		maxX = xMax;		minY = yMin;		maxY = yMax;		firePropertyChange(null, null, null);	}}
\ No newline at end of file
@@ -1,19 +0,0 @@
-//----------------------------------------------------
-// The following code was generated by CUP v0.11a beta 20060608
-// Tue Feb 08 22:13:45 CET 2011
-//----------------------------------------------------
-
-package de.cgawron.go.sgf;
-
-/** CUP generated interface containing symbol constants. */
-public interface Symbols
-{
-	/* terminals */
-	public static final int Open = 2;
-	public static final int Value = 6;
-	public static final int error = 1;
-	public static final int Close = 3;
-	public static final int Property = 5;
-	public static final int Semi = 4;
-	public static final int EOF = 0;
-}
@@ -22,6 +22,7 @@ import java.nio.channels.*;
 import java.nio.charset.CoderResult;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,10 +38,19 @@ public class MiscEncodingReader extends Reader
 	{
 		this.stream = new BufferedInputStream(stream, 16384);
 		this.stream.mark(4096);
-		reader = new InputStreamReader(this.stream);
+		currentCharset = Charset.defaultCharset();
+		reader = new InputStreamReader(this.stream, currentCharset);
 	}
 
-	public void setCharset(String charSetName, int charsUsed)
+	/**
+	 * Switch to another charset. If the charset changes, the input is read
+	 * again from <code>charsUsed</code> using the new charset. The bytes of
+	 * these characters are counted by decoding them again with the current
+	 * charset, since characters and bytes differ for multi-byte charsets.
+	 *
+	 * @return <code>true</code> if the input is read again
+	 */
+	public boolean setCharset(String charSetName, int charsUsed)
 			throws IOException
 	{
 		Charset charset = Charset.forName(charSetName);
@@ -48,13 +58,38 @@ public class MiscEncodingReader extends Reader
 				+ ": " + reader.getEncoding());
 		logger.info("CharsUsed is " + charsUsed);
 		if (!charset.equals(currentCharset)) {
-			stream.reset();
-			stream.skip(charsUsed);
-
+			skipChars(charsUsed);
 			reader = new InputStreamReader(stream, charset);
 			currentCharset = charset;
+			logger.info("Charset is now: " + reader.getEncoding());
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Position the stream after the first <code>chars</code> characters of
+	 * the input in the current charset.
+	 */
+	private void skipChars(int chars) throws IOException
+	{
+		stream.reset();
+		CharsetDecoder decoder = currentCharset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		ByteBuffer in = ByteBuffer.allocate(16);
+		CharBuffer out = CharBuffer.allocate(4);
+		int decoded = 0;
+		int b;
+		// feed the decoder byte by byte to stop right after the last character
+		while (decoded < chars && (b = stream.read()) >= 0) {
+			in.put((byte) b);
+			in.flip();
+			decoder.decode(in, out, false);
+			in.compact();
+			decoded += out.position();
+			out.clear();
 		}
-		logger.info("Charset is now: " + reader.getEncoding());
 	}
 
 	public void close() throws IOException
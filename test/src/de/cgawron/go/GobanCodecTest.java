@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import de.cgawron.go.Goban.BoardType;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests writing a {@link Goban} with {@link GobanCodec} and reading it back.
+ */
+public class GobanCodecTest extends TestCase
+{
+	/**
+	 * Set up a ko: black captures the white stone at (1, 1) with a move at
+	 * (2, 1).
+	 */
+	static void playKo(Goban goban)
+	{
+		goban.move(1, 0, BoardType.BLACK);
+		goban.move(2, 0, BoardType.WHITE);
+		goban.move(0, 1, BoardType.BLACK);
+		goban.move(3, 1, BoardType.WHITE);
+		goban.move(1, 2, BoardType.BLACK);
+		goban.move(2, 2, BoardType.WHITE);
+		goban.move(5, 5, BoardType.BLACK);
+		goban.move(1, 1, BoardType.WHITE);
+		goban.move(2, 1, BoardType.BLACK);
+	}
+
+	private static SimpleGoban roundTrip(Goban goban)
+	{
+		int size = GobanCodec.encodedSize(goban.getBoardSize());
+		ByteBuffer buffer = ByteBuffer.allocate(size + 3);
+		buffer.position(3);
+		GobanCodec.write(goban, buffer);
+		assertEquals(size + 3, buffer.position());
+
+		buffer.position(3);
+		SimpleGoban copy = new SimpleGoban();
+		GobanCodec.read(buffer, copy);
+		assertEquals(size + 3, buffer.position());
+		return copy;
+	}
+
+	private static void assertSameBoard(Goban expected, Goban actual)
+	{
+		assertEquals(expected.getBoardSize(), actual.getBoardSize());
+		assertEquals(expected, actual);
+		assertEquals(expected.getLastMove(), actual.getLastMove());
+		assertEquals(expected.getKoPoint(), actual.getKoPoint());
+		assertEquals(expected.getToMove(), actual.getToMove());
+		assertEquals(expected.getBlackCaptured(), actual.getBlackCaptured());
+		assertEquals(expected.getWhiteCaptured(), actual.getWhiteCaptured());
+	}
+
+	public void testEmpty()
+	{
+		SimpleGoban goban = new SimpleGoban(19);
+		assertEquals(107, GobanCodec.encodedSize(19));
+		assertSameBoard(goban, roundTrip(goban));
+	}
+
+	public void testKo()
+	{
+		SimpleGoban goban = new SimpleGoban(9);
+		playKo(goban);
+		assertEquals(1, goban.getBlackCaptured());
+		assertEquals(Point.of(1, 1), goban.getKoPoint());
+		assertSameBoard(goban, roundTrip(goban));
+	}
+
+	/** Board sizes whose number of points is not a multiple of four. */
+	public void testOddSizes()
+	{
+		for (int size = 2; size <= 19; size++) {
+			SimpleGoban goban = new SimpleGoban(size);
+			for (int i = 0; i < size * size; i += 3)
+				goban.putStone(i % size, i / size,
+						i % 2 == 0 ? BoardType.BLACK : BoardType.WHITE);
+			assertSameBoard(goban, roundTrip(goban));
+		}
+	}
+
+	public void testGetStone()
+	{
+		SimpleGoban goban = new SimpleGoban(9);
+		playKo(goban);
+		ByteBuffer buffer = ByteBuffer.allocate(GobanCodec.encodedSize(9));
+		GobanCodec.write(goban, buffer);
+		assertEquals(9, GobanCodec.getBoardSize(buffer, 0));
+		for (int x = 0; x < 9; x++)
+			for (int y = 0; y < 9; y++)
+				assertEquals(goban.getStone(x, y), GobanCodec.getStone(buffer,
+						0, x, y));
+	}
+
+	/** Corrupt snapshots are rejected without changing the board. */
+	public void testCorrupt()
+	{
+		SimpleGoban goban = new SimpleGoban(9);
+		playKo(goban);
+		ByteBuffer buffer = ByteBuffer.allocate(GobanCodec.encodedSize(9));
+		GobanCodec.write(goban, buffer);
+		assertCorrupt(buffer, 1, (byte) 0);
+		assertCorrupt(buffer, 1, (byte) (Point.MAX_SIZE + 1));
+		assertCorrupt(buffer, 4, (byte) 81);
+		assertCorrupt(buffer, 6, (byte) 0x7f);
+
+		buffer.limit(buffer.limit() - 1);
+		buffer.position(0);
+		SimpleGoban copy = new SimpleGoban(5);
+		try {
+			GobanCodec.read(buffer, copy);
+			fail("read a truncated snapshot");
+		} catch (IllegalArgumentException ex) {
+		}
+		assertEquals(5, copy.getBoardSize());
+	}
+
+	/**
+	 * Check that reading a snapshot with one byte changed fails and leaves
+	 * the board alone.
+	 */
+	private static void assertCorrupt(ByteBuffer buffer, int offset,
+			byte value)
+	{
+		ByteBuffer corrupt = ByteBuffer.allocate(buffer.capacity());
+		buffer.position(0);
+		corrupt.put(buffer);
+		corrupt.put(offset, value);
+		corrupt.flip();
+		SimpleGoban copy = new SimpleGoban(5);
+		copy.putStone(1, 1, BoardType.BLACK);
+		try {
+			GobanCodec.read(corrupt, copy);
+			fail("read a corrupt snapshot");
+		} catch (IllegalArgumentException ex) {
+		}
+		assertEquals(5, copy.getBoardSize());
+		assertEquals(BoardType.BLACK, copy.getStone(1, 1));
+	}
+
+	public void testNotASnapshot()
+	{
+		try {
+			GobanCodec.read(ByteBuffer.allocate(GobanCodec.HEADER_SIZE),
+					new SimpleGoban());
+			fail("read an empty buffer");
+		} catch (IllegalArgumentException ex) {
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go;
+
+import de.cgawron.go.Goban.BoardType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link LadderReader}.
+ */
+public class LadderReaderTest extends TestCase
+{
+	/**
+	 * A white stone at (3, 3) caught in a ladder and a lone white stone at
+	 * (15, 3), optionally mirrored in x.
+	 */
+	private static Goban ladder(boolean mirrored)
+	{
+		SimpleGoban goban = new SimpleGoban(19);
+		put(goban, 3, 3, BoardType.WHITE, mirrored);
+		put(goban, 2, 3, BoardType.BLACK, mirrored);
+		put(goban, 3, 2, BoardType.BLACK, mirrored);
+		put(goban, 4, 4, BoardType.BLACK, mirrored);
+		put(goban, 15, 3, BoardType.WHITE, mirrored);
+		return goban;
+	}
+
+	private static void put(Goban goban, int x, int y, BoardType color,
+			boolean mirrored)
+	{
+		goban.putStone(mirrored ? goban.getBoardSize() - 1 - x : x, y, color);
+	}
+
+	public void testLadder()
+	{
+		LadderReader reader = new LadderReader();
+		assertEquals(LadderReader.Result.CAPTURED, reader.read(ladder(false),
+				Point.of(3, 3)));
+		assertEquals(LadderReader.Result.ESCAPES, reader.read(ladder(false),
+				Point.of(15, 3)));
+	}
+
+	/** Mirrored positions must not share cached results. */
+	public void testMirroredPositions()
+	{
+		LadderReader reader = new LadderReader();
+		Goban p = ladder(false);
+		Goban q = ladder(true);
+		assertEquals(LadderReader.Result.CAPTURED, reader.read(p, Point
+				.of(3, 3)));
+		assertEquals(LadderReader.Result.ESCAPES, reader.read(q, Point.of(3,
+				3)));
+		assertEquals(LadderReader.Result.CAPTURED, reader.read(q, Point.of(15,
+				3)));
+		assertEquals(LadderReader.Result.CAPTURED, reader.read(p, Point
+				.of(3, 3)));
+	}
+}
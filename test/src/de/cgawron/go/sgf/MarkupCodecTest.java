@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.Goban.BoardType;
+import de.cgawron.go.GobanCodec;
+import de.cgawron.go.SimpleGoban;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests writing a {@link MarkupModel} with {@link MarkupCodec} and reading it
+ * back.
+ */
+public class MarkupCodecTest extends TestCase
+{
+	private static SimpleMarkupModel createModel()
+	{
+		SimpleMarkupModel model = new SimpleMarkupModel((short) 9);
+		model.move((short) 2, (short) 2, BoardType.BLACK, 1);
+		model.move((short) 6, (short) 6, BoardType.WHITE, 2);
+		model.setMarkup((short) 0, (short) 0, new MarkupModel.Stone(
+				BoardType.BLACK));
+		model.setMarkup((short) 1, (short) 0, new MarkupModel.ConflictMark(
+				new MarkupModel.Stone(BoardType.WHITE), "a"));
+		model.setMarkup((short) 2, (short) 0, new MarkupModel.Text(
+				"M\u00fcller \u65e5\u672c"));
+		model.setMarkup((short) 3, (short) 0, new MarkupModel.Triangle());
+		model.setMarkup((short) 4, (short) 0, new MarkupModel.Square());
+		model.setMarkup((short) 5, (short) 0, new MarkupModel.Circle());
+		model.setMarkup((short) 6, (short) 0, new MarkupModel.Mark());
+		model.setMarkup((short) 7, (short) 0,
+				new MarkupModel.WhiteTerritory());
+		model.setMarkup((short) 8, (short) 8,
+				new MarkupModel.BlackTerritory());
+		return model;
+	}
+
+	private static ByteBuffer write(MarkupModel model)
+	{
+		int size = MarkupCodec.encodedSize(model);
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		MarkupCodec.write(model, buffer);
+		assertEquals(size, buffer.position());
+		buffer.flip();
+		return buffer;
+	}
+
+	public void testRoundTrip()
+	{
+		SimpleMarkupModel model = createModel();
+		ByteBuffer buffer = write(model);
+		SimpleMarkupModel copy = new SimpleMarkupModel();
+		MarkupCodec.read(buffer, copy);
+		assertFalse(buffer.hasRemaining());
+
+		assertEquals(model.getBoardSize(), copy.getBoardSize());
+		assertEquals(model, copy);
+		assertEquals(model.getLastMove(), copy.getLastMove());
+		for (short x = 0; x < 9; x++)
+			for (short y = 0; y < 9; y++) {
+				MarkupModel.Markup expected = model.getMarkup(x, y);
+				MarkupModel.Markup actual = copy.getMarkup(x, y);
+				if (expected == null)
+					assertNull(actual);
+				else {
+					assertEquals(expected.getClass(), actual.getClass());
+					assertEquals(expected.toString(), actual.toString());
+					if (expected instanceof MarkupModel.Stone)
+						assertEquals(((MarkupModel.Stone) expected).getColor(),
+								((MarkupModel.Stone) actual).getColor());
+					if (expected instanceof MarkupModel.Move)
+						assertEquals(((MarkupModel.Move) expected).getMoveNo(),
+								((MarkupModel.Move) actual).getMoveNo());
+				}
+			}
+	}
+
+	/** Reading replaces the markup of the model. */
+	public void testReplacesMarkup()
+	{
+		SimpleMarkupModel model = new SimpleMarkupModel((short) 9);
+		SimpleMarkupModel copy = createModel();
+		MarkupCodec.read(write(model), copy);
+		for (short x = 0; x < 9; x++)
+			for (short y = 0; y < 9; y++) {
+				assertNull(copy.getMarkup(x, y));
+				assertEquals(BoardType.EMPTY, copy.getStone(x, y));
+			}
+	}
+
+	/** A markup snapshot starts with a board snapshot. */
+	public void testReadAsGoban()
+	{
+		SimpleMarkupModel model = createModel();
+		SimpleGoban goban = new SimpleGoban();
+		GobanCodec.read(write(model), goban);
+		assertEquals(model, goban);
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+
+import de.cgawron.util.MiscEncodingReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests reading SGF through {@link GameTree#GameTree(File)} and
+ * {@link GameTree#GameTree(java.io.InputStream)}, which both lex bytes, and
+ * through a {@link MiscEncodingReader}, which decodes the input.
+ */
+public class SGFParserTest extends TestCase
+{
+	private static final String U_UML = "\u00fc";
+	private static final String E_ACUTE = "\u00e9";
+	private static final String NIHON = "\u65e5\u672c";
+
+	/**
+	 * Parse the input through both paths and check that they agree.
+	 *
+	 * @return the tree read from the file
+	 */
+	private static GameTree parse(byte[] sgf) throws Exception
+	{
+		File file = File.createTempFile("test", ".sgf");
+		try {
+			OutputStream out = new FileOutputStream(file);
+			try {
+				out.write(sgf);
+			} finally {
+				out.close();
+			}
+			GameTree fromFile = new GameTree(file);
+			GameTree fromStream = new GameTree(new ByteArrayInputStream(sgf));
+			assertEquals("file and stream", save(fromStream), save(fromFile));
+			return fromFile;
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static String save(GameTree gameTree) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		gameTree.save(out);
+		return out.toString("UTF-8");
+	}
+
+	private static byte[] bytes(String s, String charset)
+			throws UnsupportedEncodingException
+	{
+		return s.getBytes(charset);
+	}
+
+	private static byte[] concat(byte[] a, byte[] b)
+	{
+		byte[] c = new byte[a.length + b.length];
+		System.arraycopy(a, 0, c, 0, a.length);
+		System.arraycopy(b, 0, c, a.length, b.length);
+		return c;
+	}
+
+	private static String value(Node node, String key)
+	{
+		return node.get(new Property.Key(key)).getValue().toString();
+	}
+
+	public void testAscii() throws Exception
+	{
+		GameTree gameTree = parse(bytes(
+				"(;GM[1]FF[4]SZ[9]PB[Black]PW[White]C[a comment]"
+						+ ";B[cc];W[gg](;B[cg])(;B[gc]C[variation]))", "US-ASCII"));
+		Node root = gameTree.getRoot();
+		assertEquals("Black", value(root, "PB"));
+		assertEquals("a comment", value(root, "C"));
+		assertEquals(9, root.getBoardSize());
+		Node node = root.getChildAt(0).getChildAt(0);
+		assertEquals(2, node.getChildCount());
+		assertEquals("variation", value(node.getChildAt(1), "C"));
+	}
+
+	public void testLatin1() throws Exception
+	{
+		GameTree gameTree = parse(bytes("(;CA[ISO-8859-1]PB[M" + U_UML
+				+ "ller]C[caf" + E_ACUTE + "];B[aa])", "ISO-8859-1"));
+		assertEquals("M" + U_UML + "ller", value(gameTree.getRoot(), "PB"));
+		assertEquals("caf" + E_ACUTE, value(gameTree.getRoot(), "C"));
+	}
+
+	public void testUtf8() throws Exception
+	{
+		GameTree gameTree = parse(bytes("(;CA[UTF-8]PB[M" + U_UML
+				+ "ller]PW[" + NIHON + "];B[aa]C[" + NIHON + " " + E_ACUTE
+				+ "])", "UTF-8"));
+		assertEquals("M" + U_UML + "ller", value(gameTree.getRoot(), "PB"));
+		assertEquals(NIHON, value(gameTree.getRoot(), "PW"));
+		assertEquals(NIHON + " " + E_ACUTE, value(gameTree.getRoot()
+				.getChildAt(0), "C"));
+	}
+
+	/** CA[] after multi-byte text must switch at the right byte. */
+	public void testCharsetAfterNonAsciiText() throws Exception
+	{
+		GameTree gameTree = parse(bytes("(;GM[1]FF[4]PB[M" + U_UML
+				+ "ller]CA[UTF-8]SZ[19]PW[" + NIHON + "];B[aa])", "UTF-8"));
+		assertEquals("M" + U_UML + "ller", value(gameTree.getRoot(), "PB"));
+		assertEquals(19, gameTree.getRoot().getBoardSize());
+		assertEquals(NIHON, value(gameTree.getRoot(), "PW"));
+		assertEquals(1, gameTree.getRoot().getChildCount());
+	}
+
+	/**
+	 * A MiscEncodingReader reads the characters after CA[] again with the
+	 * new charset; the text before it stays decoded with the default
+	 * charset.
+	 */
+	public void testMiscEncodingReader() throws Exception
+	{
+		byte[] sgf = bytes("(;GM[1]FF[4]PB[M" + U_UML + "ller]CA[UTF-8]SZ[19]PW["
+				+ NIHON + "];B[aa])", "UTF-8");
+		GameTree gameTree = new GameTree(new MiscEncodingReader(
+				new ByteArrayInputStream(sgf)));
+		assertEquals(19, gameTree.getRoot().getBoardSize());
+		assertEquals(NIHON, value(gameTree.getRoot(), "PW"));
+		assertEquals(1, gameTree.getRoot().getChildCount());
+	}
+
+	/** CA[] applies to the text before it. */
+	public void testCharsetAfterText() throws Exception
+	{
+		GameTree gameTree = parse(bytes("(;PB[M" + U_UML
+				+ "ller]CA[ISO-8859-1]PW[J" + E_ACUTE + "r\u00f4me];B[aa]C[caf"
+				+ E_ACUTE + "])(;PB[M" + U_UML + "ller])", "ISO-8859-1"));
+		Node root = gameTree.getRoot();
+		assertEquals(2, root.getChildCount());
+		Node first = root.getChildAt(0);
+		assertEquals("M" + U_UML + "ller", value(first, "PB"));
+		assertEquals("J" + E_ACUTE + "r\u00f4me", value(first, "PW"));
+		assertEquals("caf" + E_ACUTE, value(first.getChildAt(0), "C"));
+		assertEquals("M" + U_UML + "ller", value(root.getChildAt(1), "PB"));
+	}
+
+	/** Game trees in different charsets. */
+	public void testCharsetSwitch() throws Exception
+	{
+		byte[] sgf = concat(bytes("(;CA[UTF-8]PB[M" + U_UML + "ller " + NIHON
+				+ "];B[aa])", "UTF-8"), bytes("(;CA[ISO-8859-1]PW[J" + E_ACUTE
+				+ "r\u00f4me];B[aa])", "ISO-8859-1"));
+		Node root = parse(sgf).getRoot();
+		assertEquals(2, root.getChildCount());
+		assertEquals("M" + U_UML + "ller " + NIHON, value(root.getChildAt(0),
+				"PB"));
+		assertEquals("J" + E_ACUTE + "r\u00f4me", value(root.getChildAt(1),
+				"PW"));
+	}
+
+	/** 0x5D is the second byte of SO in Shift_JIS, 0x5C that of HYOU. */
+	public void testShiftJis() throws Exception
+	{
+		GameTree gameTree = parse(bytes(
+				"(;CA[Shift_JIS]PB[\u30bd]PW[\u8868];B[aa])", "Shift_JIS"));
+		assertEquals("\u30bd", value(gameTree.getRoot(), "PB"));
+		assertEquals("\u8868", value(gameTree.getRoot(), "PW"));
+		assertEquals(1, gameTree.getRoot().getChildCount());
+	}
+
+	/** 0x5D is the second byte of U+4E5A in GBK. */
+	public void testGbk() throws Exception
+	{
+		GameTree gameTree = parse(bytes("(;CA[GBK]PB[\u4e5a];B[aa])", "GBK"));
+		assertEquals("\u4e5a", value(gameTree.getRoot(), "PB"));
+		assertEquals(1, gameTree.getRoot().getChildCount());
+	}
+
+	public void testEscapes() throws Exception
+	{
+		GameTree gameTree = parse(bytes(
+				"(;GN[a\\]b]C[back\\\\slash [x\\] \\\nsoft break]"
+						+ ";B[bb])", "US-ASCII"));
+		Node root = gameTree.getRoot();
+		assertEquals("a]b", value(root, "GN"));
+		assertEquals("back\\slash [x] soft break", value(root, "C"));
+		assertEquals(1, root.getChildCount());
+
+		// writing and reading again yields the same values
+		GameTree again = parse(bytes(save(gameTree), "UTF-8"));
+		assertEquals("a]b", value(again.getRoot(), "GN"));
+		assertEquals("back\\slash [x] soft break", value(again.getRoot(),
+				"C"));
+	}
+}
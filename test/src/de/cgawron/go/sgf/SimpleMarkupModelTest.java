@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2010 Christian Gawron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cgawron.go.sgf;
+
+import de.cgawron.go.Goban.BoardType;
+import de.cgawron.go.GobanDelta;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests undoing changes of a {@link SimpleMarkupModel}.
+ */
+public class SimpleMarkupModelTest extends TestCase
+{
+	private static int moveNo(SimpleMarkupModel model, int x, int y)
+	{
+		return ((MarkupModel.Move) model.getMarkup((short) x, (short) y))
+				.getMoveNo();
+	}
+
+	/** Undo restores the number of the next move. */
+	public void testUndoMoveNo()
+	{
+		SimpleMarkupModel model = new SimpleMarkupModel((short) 9);
+		model.move((short) 2, (short) 2, BoardType.BLACK);
+		assertEquals(1, moveNo(model, 2, 2));
+
+		model.beginDelta();
+		model.move((short) 3, (short) 3, BoardType.WHITE);
+		model.move((short) 4, (short) 4, BoardType.BLACK);
+		GobanDelta delta = model.endDelta();
+		model.undo(delta);
+		assertNull(model.getMarkup((short) 3, (short) 3));
+
+		model.move((short) 5, (short) 5, BoardType.WHITE);
+		assertEquals(2, moveNo(model, 5, 5));
+		assertEquals(1, moveNo(model, 2, 2));
+	}
+}